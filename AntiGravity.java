@@ -0,0 +1,106 @@
+package gj.eh;
+
+/**
+ * Anti-gravity movement: every live enemy pushes us away with a force that
+ * grows with its energy and falls off with the square of its distance, the
+ * walls and corners push us back into the field, and we move along the sum.
+ *
+ * The wall and corner forces depend only on where we are, so they are
+ * worked out once for every {@link #CELL}-pixel cell of the battlefield and
+ * kept in two flat float arrays; a tick looks its cell up once and adds one
+ * term per enemy, with a single square root each. Each instance builds its
+ * own grid when the bot sets up its movement, about 5000 cells for 800x600.
+ */
+class AntiGravity {
+
+    static final int CELL = 10;
+
+    //Push from a wall at 1 pixel, and from a corner
+    private static final double WALL_FORCE = 5;
+    private static final double CORNER_FORCE = 20;
+    //Even a robot out of energy can still ram us
+    private static final double BASE_THREAT = 10;
+    //Closest distance counted, so a force never blows up
+    private static final double MIN_DISTANCE = 18;
+
+    //Wall and corner force per cell, row by row from the bottom left, for a field of gridWidth by gridHeight
+    private float[] gridX;
+    private float[] gridY;
+    private double gridWidth;
+    private double gridHeight;
+    private int columns;
+    private int rows;
+
+    //The force summed by push(), its direction the way to go
+    double forceX;
+    double forceY;
+
+    /**
+     * Makes the wall grid for a width by height battlefield, unless it is
+     * the one already made.
+     */
+    void setField(double width, double height) {
+        if (gridX != null && width == gridWidth && height == gridHeight) {
+            return;
+        }
+        columns = (int) Math.ceil(width / CELL) + 1;
+        rows = (int) Math.ceil(height / CELL) + 1;
+        gridX = new float[columns * rows];
+        gridY = new float[columns * rows];
+        for (int row = 0; row < rows; row++) {
+            double y = Math.min(height, row * CELL);
+            for (int column = 0; column < columns; column++) {
+                double x = Math.min(width, column * CELL);
+                double fx = wall(x) - wall(width - x);
+                double fy = wall(y) - wall(height - y);
+                //Each corner pushes straight out of itself
+                fx += corner(x, y) * x - corner(width - x, y) * (width - x)
+                        + corner(x, height - y) * x - corner(width - x, height - y) * (width - x);
+                fy += corner(x, y) * y + corner(width - x, y) * y
+                        - corner(x, height - y) * (height - y) - corner(width - x, height - y) * (height - y);
+                gridX[row * columns + column] = (float) fx;
+                gridY[row * columns + column] = (float) fy;
+            }
+        }
+        gridWidth = width;
+        gridHeight = height;
+    }
+
+    //Push from a wall distance away
+    private static double wall(double distance) {
+        double d = Math.max(MIN_DISTANCE, distance);
+        return WALL_FORCE / (d * d);
+    }
+
+    //Push from a corner dx and dy away, over its distance so it multiplies into a unit vector
+    private static double corner(double dx, double dy) {
+        double d = Math.max(MIN_DISTANCE, Math.sqrt(dx * dx + dy * dy));
+        return CORNER_FORCE / (d * d * d);
+    }
+
+    /**
+     * Sums the forces on us at (x, y) into forceX/Y; {@link #setField} must
+     * have been called. Returns false if no enemy is alive.
+     */
+    boolean push(EnemyRegistry enemies, double x, double y) {
+        int column = Math.max(0, Math.min(columns - 1, (int) (x / CELL + 0.5)));
+        int row = Math.max(0, Math.min(rows - 1, (int) (y / CELL + 0.5)));
+        forceX = gridX[row * columns + column];
+        forceY = gridY[row * columns + column];
+        boolean any = false;
+        int slots = enemies.size();
+        for (int slot = 0; slot < slots; slot++) {
+            if (!enemies.isAlive(slot)) {
+                continue;
+            }
+            double dx = x - enemies.x[slot];
+            double dy = y - enemies.y[slot];
+            double d = Math.max(MIN_DISTANCE, Math.sqrt(dx * dx + dy * dy));
+            double push = (enemies.energy[slot] + BASE_THREAT) / (d * d * d);
+            forceX += push * dx;
+            forceY += push * dy;
+            any = true;
+        }
+        return any;
+    }
+}
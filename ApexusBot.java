@@ -1,124 +1,191 @@
 package gj.eh;
 import robocode.*;
-import java.util.HashMap;
 import java.awt.Color;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.SplittableRandom;
 
 
-public class ApexusBot extends Robot {
+public class ApexusBot extends AdvancedRobot {
 	
 	//Edge detection/before hits the edge and activates on wall hit
 	private final double MARGIN = 175;
    
-	// Enemy tracking changed hash to make sure its java 6 just in case
-    private HashMap<String, EnemyData> enemies = new HashMap<String, EnemyData>();
-    private String currentTarget = null;
-    private String lastTarget = null;
+	// Enemy tracking, each enemy is a slot in the registry's arrays
+    final EnemyRegistry enemies = new EnemyRegistry();
+    private int currentTarget = EnemyRegistry.NONE;
     private long lastRadarSweepTime = 0;
+    private long radarSweepEnd = 0;
     
     // Movement control
     private int moveDirection = 1;
-    private long lastMoveTime = 0;
-    private static final int MOVE_COOLDOWN = 5;
+    private SplittableRandom random = new SplittableRandom();
     
     // Wall avoidance
     private static final double WALL_MARGIN = 50;
-    
-    /**
-     * Inner class to store enemy data
-     */
-    class EnemyData {
-        double bearing;
-        double distance;
-        double energy;
-        double lastEnergy;
-        double heading;
-        double velocity;
-        long time;
-        long lastSeen;
-
-        //Absolute position on the battlefield
-        double x;
-        double y;
-
-        //Previous scan's values
-        double lastHeading;
-        double lastX;
-        double lastY;
-        
-        EnemyData(ScannedRobotEvent e, long currentTime, Robot bot) {
-            update(e, currentTime, bot, true);
-        }
 
-        void update(ScannedRobotEvent e, long currentTime, Robot bot, boolean isNew) {
-            if (!isNew) {
-                this.lastHeading = this.heading;
-                this.lastX = this.x;
-                this.lastY = this.y;
-                this.lastEnergy = this.energy;
-            }
-
-            this.bearing = e.getBearing();
-            this.distance = e.getDistance();
-            this.energy = e.getEnergy();
-            this.heading = e.getHeading();
-            this.velocity = e.getVelocity();
-            this.time = currentTime;
-            this.lastSeen = currentTime;
-
-            double absoluteBearing = Math.toRadians(bot.getHeading()) + e.getBearingRadians();
-            this.x = bot.getX() + Math.sin(absoluteBearing) * e.getDistance();
-            this.y = bot.getY() + Math.cos(absoluteBearing) * e.getDistance();
-            if (isNew) {
-                this.lastHeading = this.heading;
-                this.lastX = this.x;
-                this.lastY = this.y;
-                this.lastEnergy = this.energy;
-            }
-        }
-    }
+    // Intercept solver: passes before giving up, and how close (ticks) counts as agreed
+    private static final int INTERCEPT_MAX_ITERATIONS = 15;
+    private static final double INTERCEPT_TOLERANCE = 0.05;
+    // Circular targeting steps the enemy forward a tick at a time
+    private final EnemyPredictor enemyPredictor = new EnemyPredictor();
+    // Output of projectLinear, fields so aiming doesn't allocate
+    private double predictedX;
+    private double predictedY;
+    // Bullet waves in flight, ours and the enemies'; scanWave is ours from the scan being handled
+    final Waves waves = new Waves();
+    private int scanWave = -1;
+    private long lastWaveUpdate = -1;
+    private static final double ROBOT_HALF_SIZE = 18;
+
+    // Every gun fires a virtual bullet each aim; the real gun follows whichever hits each enemy best
+    private final VirtualGuns virtualGuns = new VirtualGuns();
+    private final GuessFactorGun guessFactorGun = new GuessFactorGun();
+    private final KdTreeGun kdTreeGun = new KdTreeGun();
+    private final PatternGun patternGun = new PatternGun();
+
+    // Every heading we move on is bent off the walls first
+    private final WallSmoothing wallSmoothing = new WallSmoothing();
+    // Dodges enemy waves by where each shooter's bullets have hit us
+    private final WaveSurfer waveSurfer = new WaveSurfer(wallSmoothing);
+    // In a melee, heads for the spot least in the line of fire of every enemy
+    private final MinimumRiskMovement minimumRisk = new MinimumRiskMovement();
+    // Anti-gravity instead, only while antigravity.on exists in the data directory
+    private static final String ANTI_GRAVITY_SWITCH = "antigravity.on";
+    private final AntiGravity antiGravity = new AntiGravity();
+    private boolean useAntiGravity;
+
+    // Scans averaged for the circular gun's turn rate
+    private static final int TURN_RATE_SCANS = 4;
+
+    // Colours are made once, nothing in a tick should allocate
+    private static final Color BODY_COLOR = new Color(50, 50, 50);
+    private static final Color GUN_COLOR = new Color(255, 0, 0);
+    private static final Color RADAR_COLOR = new Color(0, 255, 0);
+    private static final Color BULLET_COLOR = new Color(255, 255, 0);
+
+    // CPU time per stage of onScannedRobot, written out at the end of each round
+    private static final String LATENCY_FILE = "latency.csv";
+    private static final long LATENCY_FILE_RESERVE = 2000;
+    final TickProfiler profiler = new TickProfiler();
+
+    // Binary log of every scan, shot and hit, only kept while record.on exists in the data directory
+    private static final String RECORDING_FILE = "battle.rec";
+    private static final String RECORDING_SWITCH = "record.on";
+    private final BattleRecorder recorder = new BattleRecorder();
     
 	/**
      * Main run method - V3's PROVEN radar system & main movement
+     * Gun, radar and body are only queued with set* calls and go out
+     * together on the single execute() at the end of each tick.
     */
 	//The brain/loop of the bot 
     public void run() {
 		 // Set colors
-        setBodyColor(new Color(50, 50, 50));
-        setGunColor(new Color(255, 0, 0));
-        setRadarColor(new Color(0, 255, 0));
-        setBulletColor(new Color(255, 255, 0));
+        setBodyColor(BODY_COLOR);
+        setGunColor(GUN_COLOR);
+        setRadarColor(RADAR_COLOR);
+        setBulletColor(BULLET_COLOR);
+
+        startRecording();
 		
-		 goToWall();
-        
-        //Starts trying to go to the closest wall it can
         setAdjustGunForRobotTurn(true);
         setAdjustRadarForGunTurn(true);
         setAdjustRadarForRobotTurn(true);
+
+        setUpMovement();
+
+        //Starts trying to go to the closest wall it can
+		 goToWall();
 		
-		//Main game loop
+		//Main game loop, one pass per tick
 		while (true) {
+            tick();
+            execute();
+        }
+    }
 
-            // Battlefield height and width in a var
-			if (currentTarget != null && enemies.containsKey(currentTarget)) {
-				keepRadarOnTarget(enemies.get(currentTarget));
-			}
+    /**
+     * Fits the movement to this round's battlefield and picks anti-gravity
+     * for melee if its switch file is in the data directory
+     */
+    void setUpMovement() {
+        wallSmoothing.setField(getBattleFieldWidth(), getBattleFieldHeight());
+        antiGravity.setField(getBattleFieldWidth(), getBattleFieldHeight());
+        useAntiGravity = getDataFile(ANTI_GRAVITY_SWITCH).exists();
+    }
+
+    /**
+     * Queues this tick's radar and movement; the gun is handled in onScannedRobot
+     */
+    void tick() {
+        int target = currentTarget;
+        //Set in run(), but tick() can be driven without it
+        if (!wallSmoothing.hasField()) {
+            wallSmoothing.setField(getBattleFieldWidth(), getBattleFieldHeight());
+        }
 
-            //Radar scan amount depends on whether we have a target locked
-            if (currentTarget != null && enemies.containsKey(currentTarget)) {
-                executeSmoothMovement(enemies.get(currentTarget));
+        if (recorder.isRecording()) {
+            recorder.pose(getTime(), getX(), getY(), getHeadingRadians(), getVelocity(), getEnergy(),
+                    getGunHeadingRadians());
+        }
+
+        // Battlefield height and width in a var
+        if (target != EnemyRegistry.NONE && !isRadarSweeping()) {
+            keepRadarOnTarget(target);
+        }
+
+        //Melee: the least risky spot, or wherever the enemies push us. One on one: surf while
+        //enemy bullets are coming, otherwise only start a new move once the last one has played out
+        long moveStart = System.nanoTime();
+        if (getOthers() > 1 && useAntiGravity && antiGravity.push(enemies, getX(), getY())) {
+            moveAlongForce();
+            profiler.lap(TickProfiler.GRAVITY, moveStart);
+        } else if (getOthers() > 1 && minimumRisk.choose(enemies, getX(), getY(), getTime(), getBattleFieldWidth(),
+                getBattleFieldHeight())) {
+            goTo(minimumRisk.destinationX, minimumRisk.destinationY);
+            profiler.lap(TickProfiler.RISK, moveStart);
+        } else if (waveSurfer.surf(this, waves, getTime())) {
+            profiler.lap(TickProfiler.SURF, moveStart);
+        } else if (getDistanceRemaining() == 0 && getTurnRemaining() == 0) {
+            if (target != EnemyRegistry.NONE) {
+                executeSmoothMovement(target);
             } else {
-                turnRight(20);
-                ahead(80);
+                double heading = wallSmoothing.smooth(getX(), getY(), getHeadingRadians() + Math.toRadians(20), 1);
+                setTurnRight(normalizeBearing(Math.toDegrees(heading) - getHeading()));
+                setAhead(80);
             }
+        }
 
-            if (getOthers() > 1 && getTime() - lastRadarSweepTime > 40) {
-                lastRadarSweepTime = getTime();
-                turnRadarRight(360);
-            } else if (currentTarget == null) {
-                turnRadarRight(360);
-            }
+        //Radar scan amount depends on whether we have a target locked
+        if (getOthers() > 1 && getTime() - lastRadarSweepTime > 40) {
+            lastRadarSweepTime = getTime();
+            radarSweepEnd = getTime() + 8;
+            setTurnRadarRight(360);
+        } else if (currentTarget == EnemyRegistry.NONE) {
+            setTurnRadarRight(360);
         }
     }
+
+    //Full speed along the anti-gravity force, wall smoothed, backing up rather than turning round
+    private void moveAlongForce() {
+        double heading = Math.atan2(antiGravity.forceX, antiGravity.forceY);
+        heading = wallSmoothing.smooth(getX(), getY(), heading, moveDirection);
+        double turn = normalizeBearing(Math.toDegrees(heading) - getHeading());
+        double distance = 100;
+        if (Math.abs(turn) > 90) {
+            turn = normalizeBearing(turn + 180);
+            distance = -distance;
+        }
+        setTurnRight(turn);
+        setAhead(distance);
+    }
+
+    //A full 360 sweep takes 8 ticks, the lock must not cut it short
+    private boolean isRadarSweeping() {
+        return getTime() < radarSweepEnd;
+    }
 	
     /**
      * Moves robot toward a target position.
@@ -135,13 +202,21 @@ public class ApexusBot extends Robot {
 		double angleToTarget = Math.toDegrees(Math.atan2(dx, dy));
 		//Calculates the difference where the bot is facing and where it wants to go
 		double turnAngle = normalRelativeAngle(angleToTarget - getHeading());
-			
-		//Turns the amount that turnAngle calculated)
-		turnRight(turnAngle);
-		
 		double distance = Math.sqrt(dx * dx + dy * dy);
-		//The bot stops driving the distance when it reaches
-		ahead(distance);
+		//Bend round any wall in the way, looking no further than the target itself
+		angleToTarget = Math.toDegrees(wallSmoothing.smooth(getX(), getY(), Math.toRadians(angleToTarget),
+				turnAngle < 0 ? -1 : 1, Math.min(WallSmoothing.STICK, distance)));
+		turnAngle = normalRelativeAngle(angleToTarget - getHeading());
+
+		//Drive backwards instead of turning more than 90
+		if (Math.abs(turnAngle) > 90) {
+			turnAngle = normalRelativeAngle(turnAngle + 180);
+			distance = -distance;
+		}
+
+		//Turns and drives at the same time, the bot stops when it reaches
+		setTurnRight(turnAngle);
+		setAhead(distance);
 		
 		
 
@@ -189,57 +264,65 @@ public class ApexusBot extends Robot {
      */
     public void onScannedRobot(ScannedRobotEvent e) {
 		if (e.isSentryRobot()) return;
-        String enemyName = e.getName();
+        long scanStart = System.nanoTime();
 
         // Update/build enemy data
-        EnemyData enemy;
-        if (enemies.containsKey(enemyName)) {
-            enemy = enemies.get(enemyName);
-            enemy.update(e, getTime(), this, false);
-        } else {
-            enemy = new EnemyData(e, getTime(), this);
-            enemies.put(enemyName, enemy);
+        int enemy = enemies.intern(e.getName());
+        enemies.update(enemy, e, getTime(), this);
+        virtualGuns.attach(enemy, e.getName());
+        guessFactorGun.attach(enemy, e.getName());
+        kdTreeGun.attach(enemy, e.getName());
+        waveSurfer.attach(enemy, e.getName());
+        updateWaves();
+        breakWaves(enemy);
+        // Enemy waves first: a launch into a full pool evicts a wave and can move scanWave
+        detectEnemyFire(enemy);
+        // Every scan of every enemy sends a wave, a data point for the nearest-neighbour gun
+        launchWave(enemy);
+        patternGun.attach(enemy, e.getName());
+        patternGun.record(enemy, getTime(), enemies.heading[enemy], enemies.velocity[enemy]);
+        if (recorder.isRecording()) {
+            recorder.scan(enemy, e.getName(), getTime(), e.getBearingRadians(), e.getDistance(),
+                    e.getHeadingRadians(), e.getVelocity(), e.getEnergy());
         }
+        long stageStart = profiler.lap(TickProfiler.TRACK, scanStart);
 
-        if (shouldSwitchTarget(enemyName, enemy)) {
-            currentTarget = enemyName;
+        if (shouldSwitchTarget(enemy)) {
+            currentTarget = enemy;
         }
+        profiler.lap(TickProfiler.SWITCH, stageStart);
 
-        lastTarget = enemyName;
-
-        if (enemyName.equals(currentTarget)) {
+        if (enemy == currentTarget && !isRadarSweeping()) {
             updateRadarLock(e);
         }
-		
-		// Track energy (kept for future dodging if you want)
-        double energyDrop = enemy.lastEnergy - enemy.energy;
-        if (enemyName.equals(currentTarget)) {
-            if (energyDrop > 0.1 && energyDrop <= 3.0) {
-                moveDirection *= -1;
-                if (moveDirection > 0) {
-                    ahead(30);
-                } else {
-                    back(30);
-                }
-            }
-        }
         
         // === V4's IMPROVED FIRE CONTROL ===
-        if (enemyName.equals(currentTarget)) {
+        if (enemy == currentTarget) {
+            stageStart = System.nanoTime();
             fireControlSystem(enemy);
+            profiler.lap(TickProfiler.FIRE, stageStart);
         }
-          
+        //Wave indexes move as waves are removed, don't keep this one past the scan
+        scanWave = -1;
+
+        profiler.lap(TickProfiler.SCAN, scanStart);
     }
 	
 	/**
      * V4's FIRE CONTROL SYSTEM - High DPS, instant response
     */
-	private void fireControlSystem(EnemyData enemy) {
+	private void fireControlSystem(int enemy) {
         // Calculate optimal bullet power
-        double firePower = calculateBulletPower(enemy.distance, enemy.energy);
+        double firePower = calculateBulletPower(enemies.distance[enemy], enemies.energy[enemy]);
         
         // Predict enemy position
         double predictedAngle = predictEnemyPosition(enemy, firePower);
+        // Every aim goes on this scan's wave for the guess-factor and virtual guns, fired or not
+        if (scanWave >= 0) {
+            waves.aimed[scanWave] = true;
+            guessFactorGun.stamp(waves, scanWave);
+            virtualGuns.stamp(waves, scanWave);
+        }
         
         // Convert predicted angle to degrees
         double predictedDegrees = Math.toDegrees(predictedAngle);
@@ -248,23 +331,25 @@ public class ApexusBot extends Robot {
         double gunTurn = normalizeBearing(predictedDegrees - getGunHeading());
         
         // Turn gun
-        turnGunRight(gunTurn);
+        setTurnGunRight(gunTurn);
 		
-		double remaining = normalizeBearing(predictedDegrees - getGunHeading());
+		// The bullet leaves before this tick's gun turn, so judge the current aim
+		double remaining = gunTurn;
         
         // === AGGRESSIVE FIRING ===
         // Fire if reasonably aligned
-        if (getGunHeat() == 0 && enemy.energy > 0 && getEnergy() > firePower) {
+        if (getGunHeat() == 0 && enemies.energy[enemy] > 0 && getEnergy() > firePower) {
             double aimAllowance;
-            if (enemy.distance > 500) {
+            if (enemies.distance[enemy] > 500) {
                 aimAllowance = 4;
-            } else if (enemy.distance > 300) {
+            } else if (enemies.distance[enemy] > 300) {
                 aimAllowance = 6;
             } else {
                 aimAllowance = 8;
             }
             if (Math.abs(remaining) < aimAllowance) {
-                fire(firePower);
+                setFire(firePower);
+                recorder.fire(getTime(), firePower, getGunHeadingRadians(), getX(), getY());
             }
         }
     }
@@ -272,25 +357,14 @@ public class ApexusBot extends Robot {
 	/**
      * Reset movement pattern history
      */
-    private void executeSmoothMovement(EnemyData enemy) {
-        double enemyAngle = Math.atan2(enemy.x - getX(), enemy.y - getY());
-        double enemyDistance = enemy.distance;
-        
-        boolean nearWall = getX() < WALL_MARGIN || 
-                          getX() > getBattleFieldWidth() - WALL_MARGIN ||
-                          getY() < WALL_MARGIN || 
-                          getY() > getBattleFieldHeight() - WALL_MARGIN;
+    private void executeSmoothMovement(int enemy) {
+        double enemyAngle = Math.atan2(enemies.x[enemy] - getX(), enemies.y[enemy] - getY());
+        double enemyDistance = enemies.distance[enemy];
         
         double moveAngle;
         double moveDistance;
         
-        if (nearWall) {
-            double centerX = getBattleFieldWidth() / 2;
-            double centerY = getBattleFieldHeight() / 2;
-            moveAngle = Math.toDegrees(Math.atan2(centerX - getX(), centerY - getY()));
-            moveDistance = 100;
-        }
-        else if (enemyDistance < 150) {
+        if (enemyDistance < 150) {
             moveAngle = Math.toDegrees(enemyAngle) + 180 + (45 * moveDirection);
             moveDistance = 120;
         } else if (enemyDistance > 400) {
@@ -302,73 +376,252 @@ public class ApexusBot extends Robot {
             moveDistance = 80;
         }
         
-        moveAngle += (Math.random() - 0.5) * 40;
+        moveAngle += (random.nextDouble() - 0.5) * 40;
+        //Slide along any wall in the way, turning on round the way we circle
+        moveAngle = Math.toDegrees(wallSmoothing.smooth(getX(), getY(), Math.toRadians(moveAngle), moveDirection));
 
         moveDistance = Math.min(moveDistance, 60);
         
         double turn = normalizeBearing(moveAngle - getHeading());
-        
+        double distance = moveDistance;
         if (Math.abs(turn) > 90) {
-            turnRight(normalizeBearing(turn + 180));
-            back(moveDistance);
-        } else {
-            turnRight(turn);
-            ahead(moveDistance);
+            turn = normalizeBearing(turn + 180);
+            distance = -moveDistance;
         }
+
+        setTurnRight(turn);
+        setAhead(distance);
         
-        if (Math.random() < 0.15) {
+        if (random.nextDouble() < 0.15) {
             moveDirection *= -1;
         }
     }
 
-    
+
     /**
-     * Enhanced enemy location prediction
+     * Enhanced enemy location prediction: every gun aims, and we go with the
+     * one that has been hitting this enemy
      */
-    private double predictEnemyPosition(EnemyData enemy, double bulletPower) {
+    double predictEnemyPosition(int enemy, double bulletPower) {
         double bulletSpeed = 20 - 3 * bulletPower;
-        long time = (long)(enemy.distance / bulletSpeed);
-        return predictLinear(enemy, bulletSpeed, time) * 0.6 + predictCircular(enemy, bulletSpeed, time) * 0.4;
+        virtualGuns.attach(enemy, enemies.getName(enemy));
+        virtualGuns.aims[VirtualGuns.LINEAR] = interceptLinear(enemy, bulletSpeed);
+        virtualGuns.aims[VirtualGuns.CIRCULAR] = interceptCircular(enemy, bulletSpeed);
+        virtualGuns.aims[VirtualGuns.LEAD] = predictLinearWithLead(enemy, bulletSpeed,
+                (long) (enemies.distance[enemy] / bulletSpeed));
+        virtualGuns.aims[VirtualGuns.GUESS_FACTOR] = aimGuessFactor(enemy, bulletSpeed);
+        virtualGuns.aims[VirtualGuns.KD_TREE] = aimKdTree(enemy, bulletSpeed);
+        virtualGuns.aims[VirtualGuns.PATTERN] = aimPattern(enemy, bulletSpeed);
+        return virtualGuns.aim(enemy);
     }
-    
+
+    /**
+     * Pattern aim, replaying what the enemy did after it last moved like this
+     */
+    double aimPattern(int enemy, double bulletSpeed) {
+        patternGun.attach(enemy, enemies.getName(enemy));
+        return patternGun.aim(enemy, getX(), getY(), enemies.x[enemy], enemies.y[enemy],
+                Math.toRadians(enemies.heading[enemy]), enemies.velocity[enemy], bulletSpeed,
+                getBattleFieldWidth(), getBattleFieldHeight());
+    }
+
+    /**
+     * Nearest-neighbour aim from the guess factors of the most similar past scans
+     */
+    double aimKdTree(int enemy, double bulletSpeed) {
+        kdTreeGun.attach(enemy, enemies.getName(enemy));
+        describeForKdTree(enemy);
+        return kdTreeGun.aim(bulletSpeed);
+    }
+
+    private void describeForKdTree(int enemy) {
+        kdTreeGun.describe(enemy, getTime(), getX(), getY(), enemies.x[enemy], enemies.y[enemy],
+                Math.toRadians(enemies.heading[enemy]), enemies.velocity[enemy], enemies.orbit[enemy],
+                enemies.orbitChangeTime[enemy], getBattleFieldWidth(), getBattleFieldHeight());
+    }
+
+    //Our wave at this scan of the enemy, at the speed we would fire at it
+    private void launchWave(int enemy) {
+        double bulletSpeed = 20 - 3 * calculateBulletPower(enemies.distance[enemy], enemies.energy[enemy]);
+        double bearing = Math.atan2(enemies.x[enemy] - getX(), enemies.y[enemy] - getY());
+        scanWave = waves.launch(Waves.OURS, enemy, getTime(), getX(), getY(), bulletSpeed, bearing,
+                enemies.orbit[enemy]);
+        describeForKdTree(enemy);
+        kdTreeGun.stamp(waves, scanWave);
+    }
+
+    /**
+     * Lets the guns learn from our waves that have reached the enemy just scanned
+     */
+    private void breakWaves(int enemy) {
+        double x = enemies.x[enemy];
+        double y = enemies.y[enemy];
+        for (int i = 0; i < waves.count; i++) {
+            if (waves.owner[i] != Waves.OURS || waves.slot[i] != enemy || !waves.reached(i, getTime(), x, y)) {
+                continue;
+            }
+            kdTreeGun.learn(waves, i, x, y);
+            if (waves.aimed[i]) {
+                guessFactorGun.learn(waves, i, x, y);
+                virtualGuns.judge(waves, i, x, y);
+            }
+            waves.remove(i);
+            i--;
+        }
+    }
+
     /**
-     * Linear prediction
+     * An enemy that lost between 0.1 and 3 energy since its last scan most
+     * likely fired; its wave started from where it was then, a tick ago
      */
-    private double predictLinear(EnemyData enemy, double bulletSpeed, long time) {
-        double predictedX = enemy.x + Math.sin(Math.toRadians(enemy.heading)) * enemy.velocity * time;
-        double predictedY = enemy.y + Math.cos(Math.toRadians(enemy.heading)) * enemy.velocity * time;
+    private void detectEnemyFire(int enemy) {
+        double energyDrop = enemies.lastEnergy[enemy] - enemies.energy[enemy];
+        if (energyDrop <= 0.1 || energyDrop > 3.0) {
+            return;
+        }
+        MovementHistory history = enemies.history;
+        int previous = history.indexTicksBack(enemy, getTime(), 1);
+        if (previous < 0) {
+            previous = history.index(enemy, 0);
+        }
+        double originX = history.x[previous];
+        double originY = history.y[previous];
+        double bearing = Math.atan2(getX() - originX, getY() - originY);
+        double lateralVelocity = getVelocity() * Math.sin(getHeadingRadians() - bearing);
+        waves.launch(Waves.THEIRS, enemy, getTime() - 1, originX, originY, 20 - 3 * energyDrop, bearing,
+                lateralVelocity < 0 ? -1 : 1);
+    }
+
+    /**
+     * Drops waves that can no longer tell us anything: ours once they are
+     * past where the enemy could have got to since we last saw it, theirs
+     * once they are past us
+     */
+    private void updateWaves() {
+        long now = getTime();
+        //Once a tick is enough, however many robots we scan in it
+        if (now == lastWaveUpdate) {
+            return;
+        }
+        lastWaveUpdate = now;
+        for (int i = 0; i < waves.count; i++) {
+            double radius = waves.radius(i, now);
+            boolean passed;
+            if (waves.owner[i] == Waves.OURS) {
+                int enemy = waves.slot[i];
+                double dx = enemies.x[enemy] - waves.x[i];
+                double dy = enemies.y[enemy] - waves.y[i];
+                double reach = Math.sqrt(dx * dx + dy * dy) + Rules.MAX_VELOCITY * (now - enemies.time[enemy]);
+                passed = !enemies.isAlive(enemy) || radius > reach + ROBOT_HALF_SIZE;
+            } else {
+                double dx = getX() - waves.x[i];
+                double dy = getY() - waves.y[i];
+                passed = radius > Math.sqrt(dx * dx + dy * dy) + ROBOT_HALF_SIZE;
+            }
+            if (passed) {
+                waves.remove(i);
+                i--;
+            }
+        }
+    }
+
+    /**
+     * Guess-factor aim from where waves at this enemy have found it before
+     */
+    double aimGuessFactor(int enemy, double bulletSpeed) {
+        guessFactorGun.attach(enemy, enemies.getName(enemy));
+        MovementHistory history = enemies.history;
+        double lastVelocity = history.size(enemy) > 1
+                ? history.velocity[history.index(enemy, 1)] : enemies.velocity[enemy];
+        return guessFactorGun.aim(enemy, getX(), getY(), enemies.x[enemy], enemies.y[enemy],
+                Math.toRadians(enemies.heading[enemy]), enemies.velocity[enemy], lastVelocity, enemies.orbit[enemy],
+                bulletSpeed, getBattleFieldWidth(), getBattleFieldHeight());
+    }
+
+    /**
+     * Circular aim at where the bullet actually meets the enemy. Played
+     * forward a tick at a time, which finds the meeting tick on the way.
+     */
+    double interceptCircular(int enemy, double bulletSpeed) {
+        resetEnemyPredictor(enemy);
+        double diagonal = Math.sqrt(getBattleFieldWidth() * getBattleFieldWidth()
+                + getBattleFieldHeight() * getBattleFieldHeight());
+        enemyPredictor.intercept(getX(), getY(), bulletSpeed, (int) (diagonal / bulletSpeed) + 1);
+        return Math.atan2(enemyPredictor.x - getX(), enemyPredictor.y - getY());
+    }
+
+    /**
+     * Linear aim at where the bullet actually meets the enemy. The flight time
+     * depends on where the enemy will be, which depends on the flight time:
+     * start from the current distance and go back and forth until they agree.
+     * Each pass shrinks the error by at least enemy speed / bullet speed (8/11
+     * at worst), so a handful of passes is normally enough.
+     */
+    double interceptLinear(int enemy, double bulletSpeed) {
+        double time = enemies.distance[enemy] / bulletSpeed;
+        for (int i = 0; i < INTERCEPT_MAX_ITERATIONS; i++) {
+            projectLinear(enemy, time);
+            double flightTime = Math.sqrt((predictedX - getX()) * (predictedX - getX())
+                    + (predictedY - getY()) * (predictedY - getY())) / bulletSpeed;
+            if (Math.abs(flightTime - time) < INTERCEPT_TOLERANCE) {
+                break;
+            }
+            time = flightTime;
+        }
+        return Math.atan2(predictedX - getX(), predictedY - getY());
+    }
+
+    //Enemy position after time ticks in a straight line, into predictedX/Y
+    private void projectLinear(int enemy, double time) {
+        double heading = Math.toRadians(enemies.heading[enemy]);
+        predictedX = enemies.x[enemy] + Math.sin(heading) * enemies.velocity[enemy] * time;
+        predictedY = enemies.y[enemy] + Math.cos(heading) * enemies.velocity[enemy] * time;
         predictedX = clamp(predictedX, WALL_MARGIN, getBattleFieldWidth() - WALL_MARGIN);
         predictedY = clamp(predictedY, WALL_MARGIN, getBattleFieldHeight() - WALL_MARGIN);
-        return Math.atan2(predictedX - getX(), predictedY - getY());
     }
     
     /**
      * Linear prediction with lead for hybird wall hugger like movement
      */
-    private double predictLinearWithLead(EnemyData enemy, double bulletSpeed, long time) {
+    double predictLinearWithLead(int enemy, double bulletSpeed, long time) {
         
         long adjustedTime = (long)(time * 1.4); // Increased from 1.3
-        double predictedX = enemy.x + Math.sin(Math.toRadians(enemy.heading)) * enemy.velocity * adjustedTime;
-        double predictedY = enemy.y + Math.cos(Math.toRadians(enemy.heading)) * enemy.velocity * adjustedTime;
+        double predictedX = enemies.x[enemy] + Math.sin(Math.toRadians(enemies.heading[enemy])) * enemies.velocity[enemy] * adjustedTime;
+        double predictedY = enemies.y[enemy] + Math.cos(Math.toRadians(enemies.heading[enemy])) * enemies.velocity[enemy] * adjustedTime;
         predictedX = clamp(predictedX, WALL_MARGIN, getBattleFieldWidth() - WALL_MARGIN);
         predictedY = clamp(predictedY, WALL_MARGIN, getBattleFieldHeight() - WALL_MARGIN);
         return Math.atan2(predictedX - getX(), predictedY - getY());
     }
     
+    //Starts the enemy predictor from the enemy's last scan and average turn rate
+    private void resetEnemyPredictor(int enemy) {
+        enemyPredictor.reset(enemies.x[enemy], enemies.y[enemy], Math.toRadians(enemies.heading[enemy]),
+                enemies.velocity[enemy], Math.toRadians(averageTurnRate(enemy)), getBattleFieldWidth(),
+                getBattleFieldHeight());
+    }
+    
     /**
-     * Circular prediction
+     * Enemy's degrees turned per tick over its last few scans. Dividing by the
+     * ticks between scans keeps this right in melee, where the radar only comes
+     * back to an enemy every few ticks.
      */
-    private double predictCircular(EnemyData enemy, double bulletSpeed, long time) {
-        double turnRate = normalizeBearing(enemy.heading - enemy.lastHeading);
-        double predictedHeading = enemy.heading + turnRate * time;
-        double predictedX = enemy.x + Math.sin(Math.toRadians(predictedHeading)) * enemy.velocity * time;
-        double predictedY = enemy.y + Math.cos(Math.toRadians(predictedHeading)) * enemy.velocity * time;
-        predictedX = clamp(predictedX, WALL_MARGIN, getBattleFieldWidth() - WALL_MARGIN);
-        predictedY = clamp(predictedY, WALL_MARGIN, getBattleFieldHeight() - WALL_MARGIN);
-        
-        return Math.atan2(predictedX - getX(), predictedY - getY());
+    double averageTurnRate(int enemy) {
+        MovementHistory history = enemies.history;
+        int scans = Math.min(history.size(enemy), TURN_RATE_SCANS + 1);
+        if (scans < 2) {
+            return 0;
+        }
+        double turned = 0;
+        int newer = history.index(enemy, 0);
+        for (int back = 1; back < scans; back++) {
+            int older = history.index(enemy, back);
+            turned += normalizeBearing(history.heading[newer] - history.heading[older]);
+            newer = older;
+        }
+        long ticks = history.time[history.index(enemy, 0)] - history.time[newer];
+        return ticks > 0 ? turned / ticks : 0;
     }
-    
+
     /**
      * V4's AGGRESSIVE bullet power for high DPS
      */
@@ -390,29 +643,122 @@ public class ApexusBot extends Robot {
         }
     }
     
-	public void onHitWall(HitWallEvent e) {
-        back(50);
-        turnRight(90);
+    /**
+     * Robocode skipped a turn because we ran over the CPU constant
+     */
+    public void onSkippedTurn(SkippedTurnEvent e) {
+        profiler.skippedTurn();
+    }
+
+    /**
+     * Write this round's p50/p99/max stage times to the data file
+     */
+    public void onRoundEnded(RoundEndedEvent e) {
+        recorder.finish(out);
+        writeLatencyStats(e.getRound());
+    }
+
+    public void onDeath(DeathEvent e) {
+        recorder.finish(out);
+    }
+
+    public void onHitByBullet(HitByBulletEvent e) {
+        recorder.hitByBullet(recordedSlot(e.getName()), getTime(), e.getPower(), e.getBearingRadians(),
+                e.getHeadingRadians());
+        learnEnemyBullet(e.getBullet());
+    }
+
+    public void onBulletHitBullet(BulletHitBulletEvent e) {
+        learnEnemyBullet(e.getHitBullet());
+    }
+
+    //Where an enemy bullet met us or ours is where its wave would have hit, the surfer counts it there
+    private void learnEnemyBullet(Bullet bullet) {
+        int shooter = enemies.find(bullet.getName());
+        if (shooter == EnemyRegistry.NONE) {
+            return;
+        }
+        int wave = waveSurfer.waveOf(waves, shooter, getTime(), bullet.getX(), bullet.getY(), bullet.getVelocity());
+        if (wave >= 0) {
+            waveSurfer.learn(waves, wave, bullet.getX(), bullet.getY());
+            waves.remove(wave);
+        }
+    }
+
+    public void onBulletHit(BulletHitEvent e) {
+        Bullet bullet = e.getBullet();
+        recorder.bulletHit(recordedSlot(e.getName()), getTime(), bullet.getPower(), e.getEnergy(),
+                bullet.getX(), bullet.getY());
+    }
+
+    public void onBulletMissed(BulletMissedEvent e) {
+        Bullet bullet = e.getBullet();
+        recorder.bulletMissed(getTime(), bullet.getPower(), bullet.getX(), bullet.getY());
+    }
+
+    //Recording is switched on per robot by creating record.on in its data directory
+    private void startRecording() {
+        if (!getDataFile(RECORDING_SWITCH).exists()) {
+            return;
+        }
+        long budget = getDataQuotaAvailable() - LATENCY_FILE_RESERVE;
+        if (budget < BattleRecorder.RECORD_SIZE) {
+            return;
+        }
+        try {
+            recorder.start(getDataFile(RECORDING_FILE), getRoundNum(), getBattleFieldWidth(),
+                    getBattleFieldHeight(), budget);
+        } catch (IOException ex) {
+            out.println("Could not start " + RECORDING_FILE + ": " + ex);
+        }
+    }
+
+    private int recordedSlot(String name) {
+        int slot = enemies.find(name);
+        return slot == EnemyRegistry.NONE ? BattleRecorder.NO_SLOT : slot;
     }
-  
+
+    //First round of a battle starts a fresh file, later rounds append
+    private void writeLatencyStats(int round) {
+        if (getDataQuotaAvailable() < LATENCY_FILE_RESERVE) {
+            return;
+        }
+        File file = getDataFile(LATENCY_FILE);
+        boolean append = round > 0 && file.length() > 0;
+        PrintStream stats = null;
+        try {
+            stats = new PrintStream(new RobocodeFileOutputStream(file.getPath(), append));
+            if (!append) {
+                TickProfiler.writeHeader(stats);
+            }
+            profiler.writeRound(stats, round);
+        } catch (IOException ex) {
+            out.println("Could not write " + LATENCY_FILE + ": " + ex);
+        } finally {
+            if (stats != null) {
+                stats.close();
+            }
+        }
+    }
+
+    /** Seeds the movement randomness; the headless simulator's -seed calls it each round. */
+    public void setRandomSeed(long seed) {
+        random = new SplittableRandom(seed);
+    }
+
     /**
      * Handle enemy death
      */
     public void onRobotDeath(RobotDeathEvent e) {
-        enemies.remove(e.getName());
+        int enemy = enemies.find(e.getName());
+        if (enemy == EnemyRegistry.NONE) {
+            return;
+        }
+        enemies.remove(enemy);
+        waves.removeTarget(enemy);
         
-        if (e.getName().equals(currentTarget)) {
-            currentTarget = null;
-            if (!enemies.isEmpty()) {
-                double minDistance = Double.MAX_VALUE;
-                for (String name : enemies.keySet()) {
-                    EnemyData enemy = enemies.get(name);
-                    if (enemy.distance < minDistance) {
-                        minDistance = enemy.distance;
-                        currentTarget = name;
-                    }
-                }
-            }
+        if (enemy == currentTarget) {
+            currentTarget = enemies.nearest();
         }
     }
 
@@ -421,46 +767,45 @@ public class ApexusBot extends Robot {
         double absoluteBearing = getHeading() + e.getBearing();
         double radarTurn = normalizeBearing(absoluteBearing - getRadarHeading());
         if (getOthers() == 1) {
-            turnRadarRight(radarTurn * 2);
+            setTurnRadarRight(radarTurn * 2);
         } else {
             //Increase but still tight radar lock
             double overshoot = (radarTurn < 0) ? -8 : 8;
-            turnRadarRight(normalizeBearing(radarTurn + overshoot));
+            setTurnRadarRight(normalizeBearing(radarTurn + overshoot));
         }
     }
 
     //Maintain line of sight of the enemy
-    private void keepRadarOnTarget(EnemyData enemy) {
-        double absoluteBearing = Math.toDegrees(Math.atan2(enemy.x - getX(), enemy.y - getY()));
+    private void keepRadarOnTarget(int enemy) {
+        double absoluteBearing = Math.toDegrees(Math.atan2(enemies.x[enemy] - getX(), enemies.y[enemy] - getY()));
         double radarTurn = normalizeBearing(absoluteBearing - getRadarHeading());
         if (getOthers() == 1) {
-            turnRadarRight(radarTurn * 2);
+            setTurnRadarRight(radarTurn * 2);
         } else {
             double overshoot = (radarTurn < 0) ? -6 : 6;
-            turnRadarRight(normalizeBearing(radarTurn + overshoot));
+            setTurnRadarRight(normalizeBearing(radarTurn + overshoot));
         }
     }
 
     //If radar bugs out, and switches targets, will allow targets to be switched
-    private boolean shouldSwitchTarget(String enemyName, EnemyData enemy) {
-        if (currentTarget == null) {
+    private boolean shouldSwitchTarget(int enemy) {
+        if (currentTarget == EnemyRegistry.NONE) {
             return true;
         }
 
-        if (enemyName.equals(currentTarget)) {
+        if (enemy == currentTarget) {
             return true;
         }
 
-        EnemyData current = enemies.get(currentTarget);
-        if (current == null) {
+        if (!enemies.isAlive(currentTarget)) {
             return true;
         }
 
-        if (getTime() - current.time > 20) {
+        if (getTime() - enemies.time[currentTarget] > 20) {
             return true;
         }
 
-        if (enemy.distance + 80 < current.distance) {
+        if (enemies.distance[enemy] + 80 < enemies.distance[currentTarget]) {
             return true;
         }
 
@@ -481,7 +826,7 @@ public class ApexusBot extends Robot {
     /**
      * Normalize bearing (degrees)
      */
-    private double normalizeBearing(double angle) {
+    double normalizeBearing(double angle) {
         while (angle > 180) angle -= 360;
         while (angle < -180) angle += 360;
         return angle;
@@ -0,0 +1,246 @@
+package gj.eh;
+
+import robocode.RobocodeFileOutputStream;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes what the bot sees each round to a binary log of fixed-width records,
+ * for replaying our real matches offline (see RecordingReader in bench/).
+ *
+ * Every record is {@link #RECORD_SIZE} bytes, big-endian:
+ * <pre>
+ *  0  byte   type
+ *  1  byte   enemy slot in the EnemyRegistry, 0xFF if none or past {@link #MAX_SLOTS}
+ *  2  short  reserved (for NAME, the length of the name in bytes)
+ *  4  int    time (for ROUND, the round number)
+ *  8  6 floats, depending on the type:
+ *     ROUND          battlefield width, height
+ *     NAME           enemy name, UTF-8, its first 24 bytes zero padded
+ *     NAME_MORE      the next 24 bytes of the name before it, zero padded
+ *     POSE           x, y, heading, velocity, energy, gun heading      (our robot)
+ *     SCAN           bearing, distance, heading, velocity, energy      (angles radians)
+ *     FIRE           power, gun heading, x, y
+ *     HIT_BY_BULLET  power, bearing, bullet heading
+ *     BULLET_HIT     power, enemy energy after the hit, bullet x, y
+ *     BULLET_MISSED  power, bullet x, y
+ * </pre>
+ * A name longer than 24 bytes runs on into as many NAME_MORE records, same
+ * slot and time, as it needs, so every name reads back exactly.
+ *
+ * The slot byte holds slots 0 to 254. Scans of an enemy in a later slot are
+ * not recorded, and hits on or by one are recorded as 0xFF.
+ *
+ * Records go into a fixed buffer that is written out when full and at the end
+ * of the round. The log never grows past the data quota left when the round
+ * starts, minus a reserve for our other files; after that records are dropped.
+ * Once {@link #start} has opened the file, only an enemy's first NAME record
+ * allocates.
+ */
+class BattleRecorder {
+
+    static final int RECORD_SIZE = 32;
+    static final int NAME_BYTES = 24;
+
+    static final byte ROUND = 0;
+    static final byte NAME = 1;
+    static final byte POSE = 2;
+    static final byte SCAN = 3;
+    static final byte FIRE = 4;
+    static final byte HIT_BY_BULLET = 5;
+    static final byte BULLET_HIT = 6;
+    static final byte BULLET_MISSED = 7;
+    static final byte NAME_MORE = 8;
+
+    static final int NO_SLOT = 0xFF;
+    /** Slots below this fit the slot byte; the rest would wrap or read as {@link #NO_SLOT}. */
+    static final int MAX_SLOTS = NO_SLOT;
+
+    private static final int BUFFER_RECORDS = 256;
+
+    private final byte[] buffer = new byte[RECORD_SIZE * BUFFER_RECORDS];
+    private final ByteBuffer records = ByteBuffer.wrap(buffer);
+    private OutputStream out;
+    private long budget;
+    private int dropped;
+    //Slots whose NAME record is already in the log
+    private boolean[] named = new boolean[16];
+
+    boolean isRecording() {
+        return out != null;
+    }
+
+    /**
+     * Opens the log and writes the ROUND record. Round 0 starts a fresh file,
+     * later rounds append to it.
+     *
+     * @param budget bytes this round may add to the file
+     */
+    void start(File file, int round, double width, double height, long budget) throws IOException {
+        out = new RobocodeFileOutputStream(file.getPath(), round > 0 && file.length() > 0);
+        this.budget = budget;
+        records.clear();
+        begin(ROUND, NO_SLOT, round);
+        records.putFloat((float) width).putFloat((float) height);
+        end();
+    }
+
+    void pose(long time, double x, double y, double heading, double velocity, double energy, double gunHeading) {
+        if (begin(POSE, NO_SLOT, time)) {
+            records.putFloat((float) x).putFloat((float) y).putFloat((float) heading)
+                    .putFloat((float) velocity).putFloat((float) energy).putFloat((float) gunHeading);
+            end();
+        }
+    }
+
+    void scan(int slot, String name, long time, double bearing, double distance, double heading,
+            double velocity, double energy) {
+        //A scan of an enemy whose name is not in the log could not be replayed
+        if (slot >= MAX_SLOTS || !isNamed(slot) && !name(slot, name, time)) {
+            return;
+        }
+        if (begin(SCAN, slot, time)) {
+            records.putFloat((float) bearing).putFloat((float) distance).putFloat((float) heading)
+                    .putFloat((float) velocity).putFloat((float) energy);
+            end();
+        }
+    }
+
+    void fire(long time, double power, double gunHeading, double x, double y) {
+        if (begin(FIRE, NO_SLOT, time)) {
+            records.putFloat((float) power).putFloat((float) gunHeading).putFloat((float) x).putFloat((float) y);
+            end();
+        }
+    }
+
+    void hitByBullet(int slot, long time, double power, double bearing, double bulletHeading) {
+        if (begin(HIT_BY_BULLET, slot, time)) {
+            records.putFloat((float) power).putFloat((float) bearing).putFloat((float) bulletHeading);
+            end();
+        }
+    }
+
+    void bulletHit(int slot, long time, double power, double enemyEnergy, double x, double y) {
+        if (begin(BULLET_HIT, slot, time)) {
+            records.putFloat((float) power).putFloat((float) enemyEnergy).putFloat((float) x).putFloat((float) y);
+            end();
+        }
+    }
+
+    void bulletMissed(long time, double power, double x, double y) {
+        if (begin(BULLET_MISSED, NO_SLOT, time)) {
+            records.putFloat((float) power).putFloat((float) x).putFloat((float) y);
+            end();
+        }
+    }
+
+    /**
+     * Writes out what is buffered and closes the log. Reports dropped records
+     * to {@code log}.
+     */
+    void finish(PrintStream log) {
+        if (out == null) {
+            return;
+        }
+        try {
+            flush();
+        } catch (IOException ex) {
+            log.println("Could not write battle recording: " + ex);
+        }
+        close();
+        if (dropped > 0) {
+            log.println("Battle recording hit the data quota, dropped " + dropped + " records");
+            dropped = 0;
+        }
+    }
+
+    private boolean isNamed(int slot) {
+        return slot < named.length && named[slot];
+    }
+
+    //Writes the slot's NAME record and any NAME_MORE after it, all or none; false if they don't fit
+    private boolean name(int slot, String name, long time) {
+        if (out == null) {
+            return false;
+        }
+        if (slot >= named.length) {
+            boolean[] grown = new boolean[Math.max(slot + 1, named.length * 2)];
+            System.arraycopy(named, 0, grown, 0, named.length);
+            named = grown;
+        }
+        //A name is only written once per slot, so the byte[] here is fine
+        byte[] utf8 = name.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(utf8.length, Short.MAX_VALUE);
+        int count = Math.max(1, (length + NAME_BYTES - 1) / NAME_BYTES);
+        if (budget < (long) count * RECORD_SIZE) {
+            dropped += count;
+            return false;
+        }
+        for (int r = 0; r < count; r++) {
+            if (!begin(r == 0 ? NAME : NAME_MORE, slot, time)) {
+                return false;
+            }
+            if (r == 0) {
+                records.putShort(records.position() - 6, (short) length);
+            }
+            int from = r * NAME_BYTES;
+            int to = Math.min(length, from + NAME_BYTES);
+            records.put(utf8, from, to - from);
+            end();
+        }
+        named[slot] = true;
+        return true;
+    }
+
+    /**
+     * Starts a record, or returns false if recording is off or over budget.
+     */
+    private boolean begin(byte type, int slot, long time) {
+        if (out == null) {
+            return false;
+        }
+        if (budget < RECORD_SIZE) {
+            dropped++;
+            return false;
+        }
+        if (!records.hasRemaining()) {
+            try {
+                flush();
+            } catch (IOException ex) {
+                //Can't write any more this round, stop recording
+                close();
+                return false;
+            }
+        }
+        budget -= RECORD_SIZE;
+        records.put(type).put((byte) (slot < MAX_SLOTS ? slot : NO_SLOT)).putShort((short) 0).putInt((int) time);
+        return true;
+    }
+
+    //Pads the record out to its fixed width
+    private void end() {
+        int recordEnd = (records.position() + RECORD_SIZE - 1) / RECORD_SIZE * RECORD_SIZE;
+        while (records.position() < recordEnd) {
+            records.put((byte) 0);
+        }
+    }
+
+    private void close() {
+        try {
+            out.close();
+        } catch (IOException ignored) {
+            //Nothing more we can do with it
+        }
+        out = null;
+    }
+
+    private void flush() throws IOException {
+        out.write(buffer, 0, records.position());
+        records.clear();
+    }
+}
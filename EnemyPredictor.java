@@ -0,0 +1,87 @@
+package gj.eh;
+
+import robocode.Rules;
+
+/**
+ * Plays an enemy forward tick by tick at its current speed and turn rate, the
+ * circular targeting assumption, but stepped the way Robocode moves a robot:
+ * turn at most 10 - 0.75 * |velocity| degrees, then move. An enemy that runs
+ * into a wall stops there instead of sliding along it or passing through, so
+ * an enemy circling near a wall is aimed at where it will really be.
+ *
+ * All state lives in fields that are overwritten on each use; nothing allocates.
+ */
+class EnemyPredictor {
+
+    private static final double HALF_SIZE = 18;
+
+    double x;
+    double y;
+    //Radians
+    double heading;
+    double velocity;
+    //Radians per tick
+    double turnRate;
+    boolean hitWall;
+
+    private double maxX;
+    private double maxY;
+
+    /**
+     * Starts from a scanned state; angles in radians.
+     */
+    void reset(double x, double y, double heading, double velocity, double turnRate, double width,
+            double height) {
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+        this.velocity = velocity;
+        this.turnRate = turnRate;
+        maxX = width - HALF_SIZE;
+        maxY = height - HALF_SIZE;
+        hitWall = false;
+    }
+
+    /**
+     * Advances one tick; returns false once the enemy has hit a wall.
+     */
+    boolean step() {
+        if (hitWall) {
+            return false;
+        }
+        double maxTurn = Rules.getTurnRateRadians(velocity);
+        heading += Math.max(-maxTurn, Math.min(maxTurn, turnRate));
+        x += velocity * Math.sin(heading);
+        y += velocity * Math.cos(heading);
+        if (x < HALF_SIZE || x > maxX || y < HALF_SIZE || y > maxY) {
+            x = Math.max(HALF_SIZE, Math.min(maxX, x));
+            y = Math.max(HALF_SIZE, Math.min(maxY, y));
+            velocity = 0;
+            hitWall = true;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Steps until a bullet of {@code bulletSpeed} fired from (fromX, fromY) now
+     * has travelled as far as the enemy is from it, which is where the bullet
+     * meets it. Gives up after {@code maxTicks}. Returns the ticks stepped;
+     * the meeting point is left in x and y.
+     */
+    int intercept(double fromX, double fromY, double bulletSpeed, int maxTicks) {
+        int ticks = 0;
+        double travelled = 0;
+        while (ticks < maxTicks) {
+            double dx = x - fromX;
+            double dy = y - fromY;
+            if (travelled * travelled >= dx * dx + dy * dy) {
+                break;
+            }
+            step();
+            ticks++;
+            travelled += bulletSpeed;
+        }
+        return ticks;
+    }
+}
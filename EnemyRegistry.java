@@ -0,0 +1,159 @@
+package gj.eh;
+
+import robocode.Robot;
+import robocode.ScannedRobotEvent;
+
+import java.util.Arrays;
+
+/**
+ * Every enemy we have scanned, interned to a small integer slot the first time
+ * its name is seen. The state lives in parallel primitive arrays indexed by
+ * slot, so after the first scan of a robot nothing here allocates.
+ *
+ * Slots are never reused within a round; a dead enemy keeps its slot with
+ * {@code alive} cleared. Older scans are kept per slot in {@link #history}.
+ */
+class EnemyRegistry {
+
+    static final int NONE = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private String[] names = new String[INITIAL_CAPACITY];
+    private boolean[] alive = new boolean[INITIAL_CAPACITY];
+    private int count;
+
+    double[] distance = new double[INITIAL_CAPACITY];
+    double[] energy = new double[INITIAL_CAPACITY];
+    double[] lastEnergy = new double[INITIAL_CAPACITY];
+    double[] heading = new double[INITIAL_CAPACITY];
+    double[] velocity = new double[INITIAL_CAPACITY];
+    long[] time = new long[INITIAL_CAPACITY];
+
+    //Absolute position on the battlefield
+    double[] x = new double[INITIAL_CAPACITY];
+    double[] y = new double[INITIAL_CAPACITY];
+
+    //Which way the enemy is circling us, 1 clockwise or -1, kept while it is
+    //stopped or coming straight at us, and the tick it last changed
+    double[] orbit = new double[INITIAL_CAPACITY];
+    long[] orbitChangeTime = new long[INITIAL_CAPACITY];
+
+    final MovementHistory history = new MovementHistory(INITIAL_CAPACITY);
+
+    /**
+     * Slot of the named enemy, or {@link #NONE} if we never scanned it.
+     * A melee has at most a few dozen robots, so a linear scan beats hashing;
+     * Robocode hands us the same name instance each scan so == nearly always hits.
+     */
+    int find(String name) {
+        for (int i = 0; i < count; i++) {
+            if (names[i] == name) {
+                return i;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if (names[i].equals(name)) {
+                names[i] = name;
+                return i;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Slot of the named enemy, taking the next free one if it is new.
+     */
+    int intern(String name) {
+        int slot = find(name);
+        if (slot != NONE) {
+            return slot;
+        }
+        if (count == names.length) {
+            grow(count * 2);
+        }
+        names[count] = name;
+        return count++;
+    }
+
+    void update(int slot, ScannedRobotEvent e, long currentTime, Robot bot) {
+        boolean isNew = !alive[slot];
+        if (!isNew) {
+            lastEnergy[slot] = energy[slot];
+        }
+
+        distance[slot] = e.getDistance();
+        energy[slot] = e.getEnergy();
+        heading[slot] = e.getHeading();
+        velocity[slot] = e.getVelocity();
+        time[slot] = currentTime;
+
+        double absoluteBearing = Math.toRadians(bot.getHeading()) + e.getBearingRadians();
+        x[slot] = bot.getX() + Math.sin(absoluteBearing) * e.getDistance();
+        y[slot] = bot.getY() + Math.cos(absoluteBearing) * e.getDistance();
+        if (isNew) {
+            lastEnergy[slot] = energy[slot];
+            alive[slot] = true;
+            history.clear(slot);
+            orbit[slot] = 1;
+            orbitChangeTime[slot] = currentTime;
+        }
+        double lateralVelocity = e.getVelocity() * Math.sin(e.getHeadingRadians() - absoluteBearing);
+        double newOrbit = lateralVelocity > 0.1 ? 1 : lateralVelocity < -0.1 ? -1 : orbit[slot];
+        if (newOrbit != orbit[slot]) {
+            orbit[slot] = newOrbit;
+            orbitChangeTime[slot] = currentTime;
+        }
+        history.record(slot, currentTime, x[slot], y[slot], heading[slot], velocity[slot], energy[slot]);
+    }
+
+    void remove(int slot) {
+        alive[slot] = false;
+    }
+
+    boolean isAlive(int slot) {
+        return slot != NONE && alive[slot];
+    }
+
+    String getName(int slot) {
+        return names[slot];
+    }
+
+    /**
+     * Number of slots handed out so far, alive or dead.
+     */
+    int size() {
+        return count;
+    }
+
+    /**
+     * Live enemy at the smallest last-scanned distance, or {@link #NONE}.
+     */
+    int nearest() {
+        int nearest = NONE;
+        double minDistance = Double.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            if (alive[i] && distance[i] < minDistance) {
+                minDistance = distance[i];
+                nearest = i;
+            }
+        }
+        return nearest;
+    }
+
+    private void grow(int capacity) {
+        names = Arrays.copyOf(names, capacity);
+        alive = Arrays.copyOf(alive, capacity);
+        distance = Arrays.copyOf(distance, capacity);
+        energy = Arrays.copyOf(energy, capacity);
+        lastEnergy = Arrays.copyOf(lastEnergy, capacity);
+        heading = Arrays.copyOf(heading, capacity);
+        velocity = Arrays.copyOf(velocity, capacity);
+        time = Arrays.copyOf(time, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        orbit = Arrays.copyOf(orbit, capacity);
+        orbitChangeTime = Arrays.copyOf(orbitChangeTime, capacity);
+        history.ensureSlots(capacity);
+    }
+}
@@ -0,0 +1,140 @@
+package gj.eh;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Guess-factor targeting: every time we aim at an enemy, its segment is
+ * stamped on the wave going out from our gun (see {@link Waves}), and when
+ * the wave reaches the enemy we note how far round it went, as a fraction of
+ * the furthest it could have gone (its maximum escape angle) in the direction
+ * it was orbiting. That fraction, the guess factor from -1 to 1, is counted
+ * in one of {@link #BINS} bins, and the gun aims at the most visited bin.
+ *
+ * Visits are kept apart by situation: distance, lateral velocity,
+ * acceleration and how close the enemy is to a wall. Each situation is a
+ * segment of BINS doubles in one flat array per enemy, found by arithmetic,
+ * so an update or an aim is a single pass over BINS values.
+ *
+ * The arrays are kept per enemy name across rounds (the robot is made anew
+ * each round, its class is not), and after an enemy's first scan nothing
+ * allocates.
+ */
+class GuessFactorGun {
+
+    static final int BINS = 31;
+    private static final int MIDDLE = (BINS - 1) / 2;
+
+    private static final double[] DISTANCES = {150, 300, 450, 600};
+    private static final double[] LATERAL_VELOCITIES = {1, 3, 5, 7};
+    private static final double[] WALL_DISTANCES = {50, 150};
+    //Deceleration, steady, acceleration
+    private static final int ACCELERATIONS = 3;
+    private static final int SEGMENTS = (DISTANCES.length + 1) * (LATERAL_VELOCITIES.length + 1) * ACCELERATIONS
+            * (WALL_DISTANCES.length + 1);
+
+    //Older visits count for less, so the gun follows an enemy that adapts
+    private static final double ROLL = 0.98;
+
+    //Visit counts per enemy name, kept for the whole battle
+    private static final HashMap<String, double[]> STATS = new HashMap<String, double[]>();
+
+    private double[][] stats = new double[16][];
+
+    //Segment of the last aim, stamped on its wave by stamp()
+    private int aimSegment;
+
+    /**
+     * Forgets every enemy's visit counts; replays call this so each pass
+     * starts from the same state.
+     */
+    static void clearStats() {
+        STATS.clear();
+    }
+
+    /**
+     * Binds {@code slot} to the named enemy's visit counts, made on the
+     * first sight of the name in the battle.
+     */
+    void attach(int slot, String name) {
+        if (slot >= stats.length) {
+            stats = Arrays.copyOf(stats, Math.max(slot + 1, stats.length * 2));
+        }
+        if (stats[slot] != null) {
+            return;
+        }
+        double[] visits = STATS.get(name);
+        if (visits == null) {
+            visits = new double[SEGMENTS * BINS];
+            STATS.put(name, visits);
+        }
+        stats[slot] = visits;
+    }
+
+    /**
+     * Bearing in radians to fire at an enemy seen at (enemyX, enemyY) from
+     * (fromX, fromY) while orbiting in {@code direction}; heading in radians.
+     * The segment is kept for {@link #stamp}.
+     */
+    double aim(int slot, double fromX, double fromY, double enemyX, double enemyY, double heading,
+            double velocity, double lastVelocity, double direction, double bulletSpeed, double width,
+            double height) {
+        double bearing = Math.atan2(enemyX - fromX, enemyY - fromY);
+        double lateralVelocity = velocity * Math.sin(heading - bearing);
+        double dx = enemyX - fromX;
+        double dy = enemyY - fromY;
+        double distance = Math.sqrt(dx * dx + dy * dy);
+        double speedChange = Math.abs(velocity) - Math.abs(lastVelocity);
+        int acceleration = speedChange < -0.5 ? 0 : speedChange > 0.5 ? 2 : 1;
+        double wallDistance = Math.min(Math.min(enemyX, width - enemyX), Math.min(enemyY, height - enemyY));
+
+        int segment = band(distance, DISTANCES);
+        segment = segment * (LATERAL_VELOCITIES.length + 1) + band(Math.abs(lateralVelocity), LATERAL_VELOCITIES);
+        segment = segment * ACCELERATIONS + acceleration;
+        segment = segment * (WALL_DISTANCES.length + 1) + band(wallDistance, WALL_DISTANCES);
+
+        aimSegment = segment;
+
+        double[] visits = stats[slot];
+        int offset = segment * BINS;
+        int best = MIDDLE;
+        for (int b = 0; b < BINS; b++) {
+            if (visits[offset + b] > visits[offset + best]) {
+                best = b;
+            }
+        }
+        double guessFactor = (double) (best - MIDDLE) / MIDDLE;
+        return bearing + direction * guessFactor * Waves.maxEscapeAngle(bulletSpeed);
+    }
+
+    /**
+     * Marks our wave with the segment of the last {@link #aim}, to learn from when it breaks.
+     */
+    void stamp(Waves waves, int wave) {
+        waves.segment[wave] = aimSegment;
+    }
+
+    /**
+     * Counts where the enemy, now at (x, y), was found by an aimed wave that reached it.
+     */
+    void learn(Waves waves, int wave, double x, double y) {
+        double guessFactor = waves.guessFactor(wave, x, y);
+        visit(stats[waves.slot[wave]], waves.segment[wave] * BINS, (int) Math.round(guessFactor * MIDDLE) + MIDDLE);
+    }
+
+    //Rolls the segment and adds a visit at bin, smoothed over its neighbours
+    private static void visit(double[] visits, int offset, int bin) {
+        for (int b = 0; b < BINS; b++) {
+            double d = b - bin;
+            visits[offset + b] = visits[offset + b] * ROLL + 1 / (d * d + 1);
+        }
+    }
+
+    private static int band(double value, double[] limits) {
+        int band = 0;
+        while (band < limits.length && value >= limits[band]) {
+            band++;
+        }
+        return band;
+    }
+}
@@ -0,0 +1,395 @@
+package gj.eh;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Nearest-neighbour ("dynamic clustering") targeting. Every scan of every
+ * enemy is described by a feature vector (distance, lateral velocity,
+ * advancing velocity, time since it last reversed, distance to the nearest
+ * wall), stamped on the wave going out at it (see {@link Waves}); when the
+ * wave reaches the enemy the guess factor it was found at is stored with the
+ * features in a KD-tree.
+ * To aim, the gun looks up the scans most like the current one and fires
+ * at the guess factor most of them ended up at.
+ *
+ * Each enemy name has its own tree, kept across rounds. A tree holds at
+ * most {@link #CAPACITY} scans and forgets the oldest to take a new one, and
+ * a search gives up after {@link #MAX_SEARCH_NODES} nodes, so neither memory
+ * nor aiming time grows over a long match. After an enemy's first scan
+ * nothing allocates.
+ */
+class KdTreeGun {
+
+    static final int DIMS = 5;
+    static final int CAPACITY = 2000;
+    static final int NEIGHBOURS = 16;
+    static final int MAX_SEARCH_NODES = 64;
+
+    //Feature scales: a unit in any dimension matters about as much as in any other
+    private static final double[] WEIGHTS = {1.0 / 800, 3.0 / 8, 1.0 / 16, 1.5 / 64, 1.5 / 400};
+    private static final double MAX_DIRECTION_TIME = 64;
+    private static final double MAX_WALL_DISTANCE = 400;
+
+    private static final int BINS = 31;
+    private static final int MIDDLE = (BINS - 1) / 2;
+    private static final double MAX_VELOCITY = 8;
+
+    //Scans per enemy name, kept for the whole battle
+    private static final HashMap<String, Tree> TREES = new HashMap<String, Tree>();
+
+    private Tree[] trees = new Tree[16];
+
+    //The last scan described, for aim() and stamp()
+    private final double[] features = new double[DIMS];
+    private int describedSlot;
+    private double describedBearing;
+    private double describedDirection;
+
+    private final double[] binWeights = new double[BINS];
+
+    /**
+     * Forgets every enemy's scans; replays call this so each pass starts
+     * from the same state.
+     */
+    static void clearTrees() {
+        TREES.clear();
+    }
+
+    /**
+     * Binds {@code slot} to the named enemy's tree, made on the first sight
+     * of the name in the battle.
+     */
+    void attach(int slot, String name) {
+        if (slot >= trees.length) {
+            trees = Arrays.copyOf(trees, Math.max(slot + 1, trees.length * 2));
+        }
+        if (trees[slot] != null) {
+            return;
+        }
+        Tree tree = TREES.get(name);
+        if (tree == null) {
+            tree = new Tree();
+            TREES.put(name, tree);
+        }
+        trees[slot] = tree;
+    }
+
+    /**
+     * Works out the features of an enemy seen at (enemyX, enemyY) from
+     * (fromX, fromY) at {@code time}, orbiting in {@code direction} since
+     * {@code directionTime}; heading in radians.
+     */
+    void describe(int slot, long time, double fromX, double fromY, double enemyX, double enemyY,
+            double heading, double velocity, double direction, long directionTime, double width, double height) {
+        double dx = enemyX - fromX;
+        double dy = enemyY - fromY;
+        double bearing = Math.atan2(dx, dy);
+        double lateralVelocity = velocity * Math.sin(heading - bearing);
+        double advancingVelocity = -velocity * Math.cos(heading - bearing);
+        double wallDistance = Math.min(Math.min(enemyX, width - enemyX), Math.min(enemyY, height - enemyY));
+
+        features[0] = Math.sqrt(dx * dx + dy * dy) * WEIGHTS[0];
+        features[1] = Math.abs(lateralVelocity) * WEIGHTS[1];
+        features[2] = (advancingVelocity + MAX_VELOCITY) * WEIGHTS[2];
+        features[3] = Math.min(time - directionTime, MAX_DIRECTION_TIME) * WEIGHTS[3];
+        features[4] = Math.min(wallDistance, MAX_WALL_DISTANCE) * WEIGHTS[4];
+        describedSlot = slot;
+        describedBearing = bearing;
+        describedDirection = direction;
+    }
+
+    /**
+     * Bearing in radians to fire at the enemy last described, from the guess
+     * factors of its most similar past scans; straight at it if there are none.
+     */
+    double aim(double bulletSpeed) {
+        Tree tree = trees[describedSlot];
+        int found = tree.search(features);
+        if (found == 0) {
+            return describedBearing;
+        }
+        Arrays.fill(binWeights, 0);
+        for (int n = 0; n < found; n++) {
+            int bin = (int) Math.round(tree.value[tree.resultIndex[n]] * MIDDLE) + MIDDLE;
+            binWeights[bin] += 1 / (1 + Math.sqrt(tree.resultDistance[n]));
+        }
+        int best = MIDDLE;
+        for (int b = 0; b < BINS; b++) {
+            if (binWeights[b] > binWeights[best]) {
+                best = b;
+            }
+        }
+        double guessFactor = (double) (best - MIDDLE) / MIDDLE;
+        return describedBearing + describedDirection * guessFactor * Waves.maxEscapeAngle(bulletSpeed);
+    }
+
+    /**
+     * Marks our wave with the features of the scan last described.
+     */
+    void stamp(Waves waves, int wave) {
+        System.arraycopy(features, 0, waves.features, wave * DIMS, DIMS);
+    }
+
+    /**
+     * Stores where the enemy, now at (x, y), was found by a wave that reached it.
+     */
+    void learn(Waves waves, int wave, double x, double y) {
+        trees[waves.slot[wave]].add(waves.features, wave * DIMS, waves.guessFactor(wave, x, y));
+    }
+
+    /**
+     * A bucketed KD-tree over at most {@link #CAPACITY} points, held in flat
+     * arrays. Points live in a ring so the oldest is the one evicted; a point
+     * is found again for eviction by walking down the splits it went down when
+     * it was added. When a leaf's bucket fills it splits in two at the mean of
+     * the dimension its points spread widest in. Bounding boxes only ever grow, which keeps
+     * searches right, just a little less tight, after evictions. If the node
+     * arrays run out the tree is rebuilt from the points it holds.
+     */
+    static final class Tree {
+
+        private static final int BUCKET = 16;
+        private static final int MAX_NODES = CAPACITY / 2;
+        private static final int LEAF = -1;
+
+        //Points, a ring with the oldest at oldest
+        final double[] coords = new double[CAPACITY * DIMS];
+        final double[] value = new double[CAPACITY];
+        private int oldest;
+        private int size;
+
+        //Nodes; low/high are child indexes, LEAF for a leaf
+        private final int[] splitDim = new int[MAX_NODES];
+        private final double[] splitValue = new double[MAX_NODES];
+        private final int[] low = new int[MAX_NODES];
+        private final int[] high = new int[MAX_NODES];
+        private final double[] minBound = new double[MAX_NODES * DIMS];
+        private final double[] maxBound = new double[MAX_NODES * DIMS];
+        private final int[] bucket = new int[MAX_NODES * BUCKET];
+        private final int[] bucketSize = new int[MAX_NODES];
+        private int nodes;
+        private boolean rebuilding;
+
+        //Search state, nearest first
+        final int[] resultIndex = new int[NEIGHBOURS];
+        final double[] resultDistance = new double[NEIGHBOURS];
+        private final int[] stack = new int[MAX_NODES];
+
+        Tree() {
+            clearNodes();
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Adds the point at {@code point[offset..offset+DIMS)} with its
+         * value, evicting the oldest point if the tree is full.
+         */
+        void add(double[] point, int offset, double pointValue) {
+            int index;
+            if (size == CAPACITY) {
+                index = oldest;
+                unlink(index);
+                oldest = (oldest + 1) % CAPACITY;
+            } else {
+                index = (oldest + size) % CAPACITY;
+                size++;
+            }
+            System.arraycopy(point, offset, coords, index * DIMS, DIMS);
+            value[index] = pointValue;
+            link(index);
+        }
+
+        /**
+         * Finds up to {@link #NEIGHBOURS} points nearest {@code query} into
+         * resultIndex and resultDistance (squared), visiting at most
+         * {@link #MAX_SEARCH_NODES} nodes. Returns how many were found.
+         */
+        int search(double[] query) {
+            int found = 0;
+            int top = 0;
+            int visited = 0;
+            stack[top++] = 0;
+            while (top > 0 && visited < MAX_SEARCH_NODES) {
+                int node = stack[--top];
+                visited++;
+                if (found == NEIGHBOURS && boxDistance(node, query) >= resultDistance[NEIGHBOURS - 1]) {
+                    continue;
+                }
+                if (low[node] != LEAF) {
+                    //Nearer side on top, searched first
+                    boolean goLow = query[splitDim[node]] < splitValue[node];
+                    stack[top++] = goLow ? high[node] : low[node];
+                    stack[top++] = goLow ? low[node] : high[node];
+                    continue;
+                }
+                for (int k = 0; k < bucketSize[node]; k++) {
+                    int index = bucket[node * BUCKET + k];
+                    double distance = pointDistance(index, query);
+                    if (found == NEIGHBOURS && distance >= resultDistance[NEIGHBOURS - 1]) {
+                        continue;
+                    }
+                    //Insertion into the sorted results
+                    int at = found < NEIGHBOURS ? found++ : NEIGHBOURS - 1;
+                    while (at > 0 && resultDistance[at - 1] > distance) {
+                        resultIndex[at] = resultIndex[at - 1];
+                        resultDistance[at] = resultDistance[at - 1];
+                        at--;
+                    }
+                    resultIndex[at] = index;
+                    resultDistance[at] = distance;
+                }
+            }
+            return found;
+        }
+
+        private void link(int index) {
+            int node = 0;
+            while (true) {
+                widen(node, index);
+                if (low[node] == LEAF) {
+                    break;
+                }
+                node = coords[index * DIMS + splitDim[node]] < splitValue[node] ? low[node] : high[node];
+            }
+            if (bucketSize[node] == BUCKET) {
+                if (!split(node, index)) {
+                    if (nodes + 2 > MAX_NODES && !rebuilding) {
+                        //Rebuilding links every point held, this one included
+                        rebuild();
+                    }
+                    //Otherwise this point and the leaf's match in every dimension; this copy stays out of the tree
+                    return;
+                }
+                node = coords[index * DIMS + splitDim[node]] < splitValue[node] ? low[node] : high[node];
+                widen(node, index);
+            }
+            bucket[node * BUCKET + bucketSize[node]++] = index;
+        }
+
+        //Grows the node's bounds to cover the point
+        private void widen(int node, int index) {
+            for (int d = 0; d < DIMS; d++) {
+                double c = coords[index * DIMS + d];
+                minBound[node * DIMS + d] = Math.min(minBound[node * DIMS + d], c);
+                maxBound[node * DIMS + d] = Math.max(maxBound[node * DIMS + d], c);
+            }
+        }
+
+        //Takes a point out of its leaf; points kept out of the tree are not found
+        private void unlink(int index) {
+            int node = 0;
+            while (low[node] != LEAF) {
+                node = coords[index * DIMS + splitDim[node]] < splitValue[node] ? low[node] : high[node];
+            }
+            for (int k = 0; k < bucketSize[node]; k++) {
+                if (bucket[node * BUCKET + k] == index) {
+                    bucket[node * BUCKET + k] = bucket[node * BUCKET + --bucketSize[node]];
+                    return;
+                }
+            }
+        }
+
+        //Splits a full leaf at the mean of the dimension its points and the one being added spread widest in; its
+        //bounds can't pick it, as they only grow and still cover evicted points. False if the tree is full or every
+        //point is the same in every dimension
+        private boolean split(int node, int adding) {
+            if (nodes + 2 > MAX_NODES) {
+                return false;
+            }
+            int dim = -1;
+            double widest = 0;
+            double splitMin = 0;
+            double splitMax = 0;
+            double splitSum = 0;
+            for (int d = 0; d < DIMS; d++) {
+                double min = coords[adding * DIMS + d];
+                double max = min;
+                double sum = min;
+                for (int k = 0; k < BUCKET; k++) {
+                    double c = coords[bucket[node * BUCKET + k] * DIMS + d];
+                    min = Math.min(min, c);
+                    max = Math.max(max, c);
+                    sum += c;
+                }
+                if (max - min > widest) {
+                    widest = max - min;
+                    dim = d;
+                    splitMin = min;
+                    splitMax = max;
+                    splitSum = sum;
+                }
+            }
+            if (dim < 0) {
+                return false;
+            }
+            double mean = splitSum / (BUCKET + 1);
+            //Rounding can put the mean on the minimum, which would leave the low side empty
+            if (mean <= splitMin) {
+                mean = splitMax;
+            }
+            int lowChild = newLeaf();
+            int highChild = newLeaf();
+            for (int k = 0; k < BUCKET; k++) {
+                int index = bucket[node * BUCKET + k];
+                int child = coords[index * DIMS + dim] < mean ? lowChild : highChild;
+                bucket[child * BUCKET + bucketSize[child]++] = index;
+                widen(child, index);
+            }
+            splitDim[node] = dim;
+            splitValue[node] = mean;
+            low[node] = lowChild;
+            high[node] = highChild;
+            bucketSize[node] = 0;
+            return true;
+        }
+
+        private void rebuild() {
+            rebuilding = true;
+            clearNodes();
+            for (int n = 0; n < size; n++) {
+                link((oldest + n) % CAPACITY);
+            }
+            rebuilding = false;
+        }
+
+        private void clearNodes() {
+            nodes = 0;
+            newLeaf();
+        }
+
+        private int newLeaf() {
+            int node = nodes++;
+            low[node] = LEAF;
+            high[node] = LEAF;
+            bucketSize[node] = 0;
+            Arrays.fill(minBound, node * DIMS, node * DIMS + DIMS, Double.POSITIVE_INFINITY);
+            Arrays.fill(maxBound, node * DIMS, node * DIMS + DIMS, Double.NEGATIVE_INFINITY);
+            return node;
+        }
+
+        //Squared distance from the query to the node's bounding box
+        private double boxDistance(int node, double[] query) {
+            double sum = 0;
+            for (int d = 0; d < DIMS; d++) {
+                double q = query[d];
+                double gap = q < minBound[node * DIMS + d] ? minBound[node * DIMS + d] - q
+                        : q > maxBound[node * DIMS + d] ? q - maxBound[node * DIMS + d] : 0;
+                sum += gap * gap;
+            }
+            return sum;
+        }
+
+        private double pointDistance(int index, double[] query) {
+            double sum = 0;
+            for (int d = 0; d < DIMS; d++) {
+                double gap = coords[index * DIMS + d] - query[d];
+                sum += gap * gap;
+            }
+            return sum;
+        }
+    }
+}
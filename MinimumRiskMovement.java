@@ -0,0 +1,188 @@
+package gj.eh;
+
+import java.util.Arrays;
+
+/**
+ * Minimum-risk movement for melee: each tick, {@link #CANDIDATES} points on a
+ * ring around us are scored against every live enemy and the walls, and we
+ * head for the least risky one. An enemy's risk at a point falls off with the
+ * square of its distance and grows with its energy, is worse if the point
+ * would make us the robot nearest it (and so most likely its target), and
+ * worse again if going there takes us along the line to it rather than
+ * across it. Points near a wall pay for it, and points closer than
+ * {@link #WALL_MARGIN} to one are never picked.
+ *
+ * The enemies are first copied into flat arrays, with each one's distance to
+ * the robot nearest it, so scoring is a single loop of arithmetic over
+ * candidates times enemies, with no square roots or trigonometry in it. The
+ * whole choice is O(enemies^2 + candidates * enemies), a few microseconds even
+ * for a 30-robot battle. The ring turns a little each tick, so over a few ticks
+ * the whole circle is tried, and the point we are heading for is always
+ * scored again so we only turn away from it for something better.
+ *
+ * Nothing allocates once the arrays have grown to the number of enemies.
+ */
+class MinimumRiskMovement {
+
+    static final int CANDIDATES = 24;
+
+    //Candidates alternate between the full and half ring, at most this far and at least MIN_RADIUS
+    private static final double MAX_RADIUS = 200;
+    private static final double MIN_RADIUS = 80;
+    //Rotation of the ring per tick, the golden angle so it never repeats
+    private static final double RING_TURN = Math.PI * (3 - Math.sqrt(5));
+    //Step between candidates, applied as a rotation so the ring needs only one sin and cos
+    private static final double STEP_SIN = Math.sin(2 * Math.PI / CANDIDATES);
+    private static final double STEP_COS = Math.cos(2 * Math.PI / CANDIDATES);
+
+    private static final double WALL_MARGIN = 40;
+    private static final double WALL_RISK = 2;
+    //Even a robot out of energy can still ram us
+    private static final double BASE_THREAT = 10;
+    private static final double CLOSEST_RISK = 3;
+    //Close enough to the destination to pick a new one rather than stop there
+    private static final double ARRIVED = 20;
+
+    //The point to head for, set by choose()
+    double destinationX;
+    double destinationY;
+    private boolean hasDestination;
+
+    //Live enemies this tick: position, energy and squared distance to the nearest other robot
+    private int count;
+    private double[] enemyX = new double[16];
+    private double[] enemyY = new double[16];
+    private double[] threat = new double[16];
+    private double[] nearestOther = new double[16];
+    //The enemy's offset from us now and one over its square, for the line-of-fire term
+    private double[] offsetX = new double[16];
+    private double[] offsetY = new double[16];
+    private double[] inverseDistanceSq = new double[16];
+
+    /**
+     * Picks the least risky point to head for from (x, y) at tick {@code time}
+     * and leaves it in destinationX/Y. Returns false, choosing nothing, if no
+     * enemy is alive.
+     */
+    boolean choose(EnemyRegistry enemies, double x, double y, long time, double width, double height) {
+        gather(enemies, x, y);
+        if (count == 0) {
+            return false;
+        }
+
+        //Go about half way to the nearest enemy, so we never jump past it
+        double nearestInverse = 0;
+        for (int e = 0; e < count; e++) {
+            nearestInverse = Math.max(nearestInverse, inverseDistanceSq[e]);
+        }
+        double radius = Math.max(MIN_RADIUS, Math.min(MAX_RADIUS, 1 / Math.sqrt(nearestInverse) / 2));
+
+        double bestRisk = Double.MAX_VALUE;
+        double toDestinationX = destinationX - x;
+        double toDestinationY = destinationY - y;
+        if (toDestinationX * toDestinationX + toDestinationY * toDestinationY < ARRIVED * ARRIVED) {
+            hasDestination = false;
+        }
+        if (hasDestination) {
+            bestRisk = risk(x, y, destinationX, destinationY, width, height);
+        }
+        double offset = (time * RING_TURN) % (2 * Math.PI);
+        double sin = Math.sin(offset);
+        double cos = Math.cos(offset);
+        for (int c = 0; c < CANDIDATES; c++) {
+            double r = (c & 1) == 0 ? radius : radius / 2;
+            double px = x + r * sin;
+            double py = y + r * cos;
+            double nextSin = sin * STEP_COS + cos * STEP_SIN;
+            cos = cos * STEP_COS - sin * STEP_SIN;
+            sin = nextSin;
+            double risk = risk(x, y, px, py, width, height);
+            if (risk < bestRisk) {
+                bestRisk = risk;
+                destinationX = px;
+                destinationY = py;
+                hasDestination = true;
+            }
+        }
+        return hasDestination;
+    }
+
+    //Copies the live enemies into the flat arrays and finds each one's nearest other robot
+    private void gather(EnemyRegistry enemies, double x, double y) {
+        int slots = enemies.size();
+        if (slots > enemyX.length) {
+            grow(Math.max(slots, enemyX.length * 2));
+        }
+        count = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if (!enemies.isAlive(slot)) {
+                continue;
+            }
+            double ex = enemies.x[slot];
+            double ey = enemies.y[slot];
+            enemyX[count] = ex;
+            enemyY[count] = ey;
+            threat[count] = enemies.energy[slot] + BASE_THREAT;
+            offsetX[count] = ex - x;
+            offsetY[count] = ey - y;
+            inverseDistanceSq[count] = 1 / (offsetX[count] * offsetX[count] + offsetY[count] * offsetY[count] + 1e-9);
+            count++;
+        }
+        Arrays.fill(nearestOther, 0, count, Double.MAX_VALUE);
+        //Each pair once, for both of its enemies
+        for (int e = 0; e < count; e++) {
+            double ex = enemyX[e];
+            double ey = enemyY[e];
+            double nearest = nearestOther[e];
+            for (int o = e + 1; o < count; o++) {
+                double dx = enemyX[o] - ex;
+                double dy = enemyY[o] - ey;
+                double d = dx * dx + dy * dy;
+                if (d < nearest) {
+                    nearest = d;
+                }
+                if (d < nearestOther[o]) {
+                    nearestOther[o] = d;
+                }
+            }
+            nearestOther[e] = nearest;
+        }
+    }
+
+    //Risk of the point (px, py) reached from (x, y)
+    private double risk(double x, double y, double px, double py, double width, double height) {
+        double toWallX = Math.min(px, width - px);
+        double toWallY = Math.min(py, height - py);
+        if (toWallX < WALL_MARGIN || toWallY < WALL_MARGIN) {
+            return Double.MAX_VALUE;
+        }
+        double risk = WALL_RISK * (1 / (toWallX * toWallX) + 1 / (toWallY * toWallY));
+        double moveX = px - x;
+        double moveY = py - y;
+        double inverseMoveSq = 1 / (moveX * moveX + moveY * moveY + 1e-9);
+        for (int e = 0; e < count; e++) {
+            double dx = enemyX[e] - px;
+            double dy = enemyY[e] - py;
+            double d = dx * dx + dy * dy;
+            double enemyRisk = threat[e] / d;
+            if (d < nearestOther[e]) {
+                enemyRisk *= CLOSEST_RISK;
+            }
+            //1 + cos^2 of the angle between our move and the line to the enemy; squared, it needs no root
+            double dot = moveX * offsetX[e] + moveY * offsetY[e];
+            enemyRisk *= 1 + dot * dot * inverseMoveSq * inverseDistanceSq[e];
+            risk += enemyRisk;
+        }
+        return risk;
+    }
+
+    private void grow(int capacity) {
+        enemyX = Arrays.copyOf(enemyX, capacity);
+        enemyY = Arrays.copyOf(enemyY, capacity);
+        threat = Arrays.copyOf(threat, capacity);
+        nearestOther = Arrays.copyOf(nearestOther, capacity);
+        offsetX = Arrays.copyOf(offsetX, capacity);
+        offsetY = Arrays.copyOf(offsetY, capacity);
+        inverseDistanceSq = Arrays.copyOf(inverseDistanceSq, capacity);
+    }
+}
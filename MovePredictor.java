@@ -0,0 +1,112 @@
+package gj.eh;
+
+import robocode.AdvancedRobot;
+import robocode.Rules;
+
+/**
+ * Plays our own robot forward tick by tick under Robocode's movement rules, so
+ * movement code can see where a turn/ahead command really takes us before
+ * issuing it: turn first, at most 10 - 0.75 * |velocity| degrees a tick, then
+ * accelerate by 1 or brake by 2 up to 8, slowing down in time to stop on the
+ * spot, then move. Walls stop the robot dead, as they do in Robocode.
+ *
+ * All state lives in fields that are overwritten on each use; nothing allocates.
+ */
+class MovePredictor {
+
+    private static final double HALF_SIZE = 18;
+
+    double x;
+    double y;
+    //Radians
+    double heading;
+    double velocity;
+    double turnRemaining;
+    double distanceRemaining;
+    boolean hitWall;
+
+    private double maxX;
+    private double maxY;
+
+    /**
+     * Starts from where the robot is now, with its pending turn and move.
+     */
+    void reset(AdvancedRobot bot) {
+        x = bot.getX();
+        y = bot.getY();
+        heading = bot.getHeadingRadians();
+        velocity = bot.getVelocity();
+        turnRemaining = bot.getTurnRemainingRadians();
+        distanceRemaining = bot.getDistanceRemaining();
+        maxX = bot.getBattleFieldWidth() - HALF_SIZE;
+        maxY = bot.getBattleFieldHeight() - HALF_SIZE;
+        hitWall = false;
+    }
+
+    /**
+     * Replaces the pending command, like setTurnRightRadians plus setAhead.
+     */
+    void command(double turnRadians, double distance) {
+        turnRemaining = turnRadians;
+        distanceRemaining = distance;
+    }
+
+    /**
+     * Advances one tick; returns false if that tick ran into a wall.
+     */
+    boolean step() {
+        double maxTurn = Rules.getTurnRateRadians(velocity);
+        double turn = Math.max(-maxTurn, Math.min(maxTurn, turnRemaining));
+        heading += turn;
+        turnRemaining -= turn;
+
+        velocity = newVelocity(velocity, distanceRemaining);
+        x += velocity * Math.sin(heading);
+        y += velocity * Math.cos(heading);
+        distanceRemaining -= velocity;
+        if (Math.abs(distanceRemaining) < 1e-9) {
+            distanceRemaining = 0;
+        }
+
+        if (x < HALF_SIZE || x > maxX || y < HALF_SIZE || y > maxY) {
+            x = Math.max(HALF_SIZE, Math.min(maxX, x));
+            y = Math.max(HALF_SIZE, Math.min(maxY, y));
+            velocity = 0;
+            distanceRemaining = 0;
+            hitWall = true;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Robocode's velocity update for a robot with {@code distance} left to go.
+     */
+    static double newVelocity(double velocity, double distance) {
+        if (distance < 0) {
+            return -newVelocity(-velocity, -distance);
+        }
+        double goalVelocity = Math.min(maxVelocity(distance), Rules.MAX_VELOCITY);
+        if (velocity >= 0) {
+            return Math.max(velocity - Rules.DECELERATION, Math.min(goalVelocity, velocity + Rules.ACCELERATION));
+        }
+        //Moving backwards: brake towards zero, and past it accelerate
+        return Math.max(velocity - Rules.ACCELERATION, Math.min(goalVelocity, velocity + maxDeceleration(-velocity)));
+    }
+
+    //Fastest speed from which we can still stop within distance
+    private static double maxVelocity(double distance) {
+        double decelTime = Math.max(1, Math.ceil((Math.sqrt((4 * 2 / Rules.DECELERATION) * distance + 1) - 1) / 2));
+        if (decelTime == Double.POSITIVE_INFINITY) {
+            return Rules.MAX_VELOCITY;
+        }
+        double decelDist = (decelTime / 2.0) * (decelTime - 1) * Rules.DECELERATION;
+        return ((decelTime - 1) * Rules.DECELERATION) + ((distance - decelDist) / decelTime);
+    }
+
+    private static double maxDeceleration(double speed) {
+        double decelTime = speed / Rules.DECELERATION;
+        double accelTime = 1 - decelTime;
+        return Math.min(1, decelTime) * Rules.DECELERATION + Math.max(0, accelTime) * Rules.ACCELERATION;
+    }
+}
@@ -0,0 +1,114 @@
+package gj.eh;
+
+import java.util.Arrays;
+
+/**
+ * Timestamped scan snapshots for every enemy slot of {@link EnemyRegistry},
+ * each enemy with its own fixed-size ring. All rings share flat primitive
+ * arrays: a snapshot is one index into {@code time}, {@code x}, {@code y},
+ * {@code heading}, {@code velocity} and {@code energy}, found with
+ * {@link #index(int, int)} by scans or {@link #indexTicksBack(int, long, int)}
+ * by ticks.
+ *
+ * A ring is only cleared when its enemy is seen again after dying, so
+ * switching targets never throws history away. Headings are in degrees,
+ * as in the registry.
+ */
+class MovementHistory {
+
+    static final int LENGTH = 256;
+    private static final int MASK = LENGTH - 1;
+
+    long[] time;
+    double[] x;
+    double[] y;
+    double[] heading;
+    double[] velocity;
+    double[] energy;
+
+    //Snapshots ever written per slot, the newest is at written - 1
+    private long[] written;
+
+    MovementHistory(int slots) {
+        time = new long[slots * LENGTH];
+        x = new double[slots * LENGTH];
+        y = new double[slots * LENGTH];
+        heading = new double[slots * LENGTH];
+        velocity = new double[slots * LENGTH];
+        energy = new double[slots * LENGTH];
+        written = new long[slots];
+    }
+
+    void record(int slot, long tick, double enemyX, double enemyY, double enemyHeading,
+            double enemyVelocity, double enemyEnergy) {
+        int i = slot * LENGTH + (int) (written[slot] & MASK);
+        time[i] = tick;
+        x[i] = enemyX;
+        y[i] = enemyY;
+        heading[i] = enemyHeading;
+        velocity[i] = enemyVelocity;
+        energy[i] = enemyEnergy;
+        written[slot]++;
+    }
+
+    void clear(int slot) {
+        written[slot] = 0;
+    }
+
+    /**
+     * Snapshots held for the slot, at most {@link #LENGTH}.
+     */
+    int size(int slot) {
+        return (int) Math.min(written[slot], LENGTH);
+    }
+
+    /**
+     * Index of the snapshot {@code back} scans before the newest (0 = newest).
+     * {@code back} must be below {@link #size(int)}.
+     */
+    int index(int slot, int back) {
+        return slot * LENGTH + (int) ((written[slot] - 1 - back) & MASK);
+    }
+
+    /**
+     * Index of the newest snapshot taken at least {@code ticks} before
+     * {@code now}, or -1 if that is older than anything still held. In melee
+     * an enemy is scanned only every few ticks, so this, not
+     * {@link #index(int, int)}, is the way to read "n ticks ago".
+     */
+    int indexTicksBack(int slot, long now, int ticks) {
+        long tick = now - ticks;
+        int size = size(slot);
+        if (size == 0 || time[index(slot, size - 1)] > tick) {
+            return -1;
+        }
+        //Times only grow, so binary search on how many scans back to go
+        int newer = -1;
+        int older = size - 1;
+        while (older - newer > 1) {
+            int mid = (newer + older) >>> 1;
+            if (time[index(slot, mid)] > tick) {
+                newer = mid;
+            } else {
+                older = mid;
+            }
+        }
+        return index(slot, older);
+    }
+
+    /**
+     * Make room for slots up to {@code slots}, keeping what is recorded.
+     */
+    void ensureSlots(int slots) {
+        if (slots <= written.length) {
+            return;
+        }
+        time = Arrays.copyOf(time, slots * LENGTH);
+        x = Arrays.copyOf(x, slots * LENGTH);
+        y = Arrays.copyOf(y, slots * LENGTH);
+        heading = Arrays.copyOf(heading, slots * LENGTH);
+        velocity = Arrays.copyOf(velocity, slots * LENGTH);
+        energy = Arrays.copyOf(energy, slots * LENGTH);
+        written = Arrays.copyOf(written, slots);
+    }
+}
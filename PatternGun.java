@@ -0,0 +1,247 @@
+package gj.eh;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Pattern-matching targeting. Each tick of an enemy's movement becomes a
+ * symbol, its speed and how far it turned (both rounded to whole units), and
+ * the symbols are kept for the whole battle. To aim, the gun finds the last
+ * time the enemy's most recent ticks happened before, then plays what it did
+ * next forward from where it is now until our bullet would reach it.
+ *
+ * Matches are found through rolling hashes of the last {@link #LENGTHS}
+ * symbols, each length with a table from hash to where it last ended. Adding
+ * a symbol updates one hash and one table entry per length, and a lookup
+ * tries each length once, longest first, so neither depends on how long the
+ * history is. Tables keep only the latest ending for a hash, and a hit is
+ * checked symbol by symbol, so a collision costs a shorter match, never a
+ * wrong one.
+ *
+ * Histories are kept per enemy name across rounds. When one fills up, its
+ * older half is dropped and the tables refilled, which is rare enough not
+ * to matter; otherwise nothing allocates after an enemy's first scan.
+ */
+class PatternGun {
+
+    static final int[] LENGTHS = {32, 16, 8};
+    static final int HISTORY = 1 << 16;
+    private static final int TABLE_BITS = 14;
+    private static final int TABLE_MASK = (1 << TABLE_BITS) - 1;
+    private static final long HASH_BASE = 0x9E3779B97F4A7C15L;
+
+    private static final int MAX_TURN = 10;
+    private static final int TURNS = 2 * MAX_TURN + 1;
+    private static final double MAX_VELOCITY = 8;
+    //Longest gap between scans that is filled in tick by tick
+    private static final int MAX_GAP = 32;
+
+    //History per enemy name, kept for the whole battle
+    private static final HashMap<String, History> HISTORIES = new HashMap<String, History>();
+
+    private History[] histories = new History[16];
+    //Last scan per slot, this round; time NEVER before the first
+    private static final long NEVER = Long.MIN_VALUE;
+    private double[] lastHeading = new double[16];
+    private long[] lastTime = new long[16];
+
+    private final EnemyPredictor predictor = new EnemyPredictor();
+
+    /**
+     * Forgets every enemy's history; replays call this so each pass starts
+     * from the same state.
+     */
+    static void clearHistories() {
+        HISTORIES.clear();
+    }
+
+    /**
+     * Binds {@code slot} to the named enemy's history, made on the first
+     * sight of the name in the battle.
+     */
+    void attach(int slot, String name) {
+        if (slot >= histories.length) {
+            int capacity = Math.max(slot + 1, histories.length * 2);
+            histories = Arrays.copyOf(histories, capacity);
+            lastHeading = Arrays.copyOf(lastHeading, capacity);
+            lastTime = Arrays.copyOf(lastTime, capacity);
+        }
+        if (histories[slot] != null) {
+            return;
+        }
+        History history = HISTORIES.get(name);
+        if (history == null) {
+            history = new History();
+            HISTORIES.put(name, history);
+        }
+        histories[slot] = history;
+        lastTime[slot] = NEVER;
+    }
+
+    /**
+     * Adds the ticks since the enemy's last scan to its history; heading in
+     * degrees. Ticks the radar missed are filled in at the average turn.
+     */
+    void record(int slot, long time, double heading, double velocity) {
+        if (lastTime[slot] != NEVER && time > lastTime[slot]) {
+            int gap = (int) Math.min(time - lastTime[slot], MAX_GAP);
+            double turn = normalize(heading - lastHeading[slot]) / (time - lastTime[slot]);
+            int symbol = symbol(velocity, turn);
+            for (int t = 0; t < gap; t++) {
+                histories[slot].add(symbol);
+            }
+        }
+        lastHeading[slot] = heading;
+        lastTime[slot] = time;
+    }
+
+    /**
+     * Bearing in radians to fire at an enemy now at (x, y) from (fromX,
+     * fromY), replaying the moves that followed the longest earlier match of
+     * its recent ones. Heading in radians. Straight at it if nothing matches.
+     */
+    double aim(int slot, double fromX, double fromY, double x, double y, double heading, double velocity,
+            double bulletSpeed, double width, double height) {
+        History history = histories[slot];
+        int end = history.match();
+        if (end < 0) {
+            return Math.atan2(x - fromX, y - fromY);
+        }
+        predictor.reset(x, y, heading, velocity, 0, width, height);
+        double diagonal = Math.sqrt(width * width + height * height);
+        int maxTicks = (int) (diagonal / bulletSpeed) + 1;
+        //What followed the match; if we reach now, go round it again
+        int next = end + 1;
+        double travelled = 0;
+        for (int tick = 0; tick < maxTicks; tick++) {
+            double dx = predictor.x - fromX;
+            double dy = predictor.y - fromY;
+            if (travelled * travelled >= dx * dx + dy * dy) {
+                break;
+            }
+            if (next >= history.length) {
+                next = end + 1;
+            }
+            int symbol = history.symbols[next++];
+            predictor.velocity = symbol / TURNS - MAX_VELOCITY;
+            predictor.turnRate = Math.toRadians(symbol % TURNS - MAX_TURN);
+            if (!predictor.step()) {
+                break;
+            }
+            travelled += bulletSpeed;
+        }
+        return Math.atan2(predictor.x - fromX, predictor.y - fromY);
+    }
+
+    static int symbol(double velocity, double turn) {
+        int v = (int) Math.round(Math.max(-MAX_VELOCITY, Math.min(MAX_VELOCITY, velocity)) + MAX_VELOCITY);
+        int t = (int) Math.round(Math.max(-MAX_TURN, Math.min(MAX_TURN, turn))) + MAX_TURN;
+        return v * TURNS + t;
+    }
+
+    private static double normalize(double angle) {
+        while (angle > 180) {
+            angle -= 360;
+        }
+        while (angle < -180) {
+            angle += 360;
+        }
+        return angle;
+    }
+
+    /**
+     * One enemy's symbols with a rolling hash and last-ending table per match length.
+     */
+    static final class History {
+
+        final char[] symbols = new char[HISTORY];
+        int length;
+
+        private final long[] hash = new long[LENGTHS.length];
+        //BASE to the power of each length, to take the oldest symbol out of the hash
+        private final long[] dropFactor = new long[LENGTHS.length];
+        private final long[] tableHash = new long[LENGTHS.length << TABLE_BITS];
+        //Index of the last symbol of the window plus one, 0 for empty
+        private final int[] tableEnd = new int[LENGTHS.length << TABLE_BITS];
+
+        History() {
+            for (int l = 0; l < LENGTHS.length; l++) {
+                long factor = 1;
+                for (int i = 0; i < LENGTHS[l]; i++) {
+                    factor *= HASH_BASE;
+                }
+                dropFactor[l] = factor;
+            }
+        }
+
+        /**
+         * Appends a symbol. The window that ended just before it goes into the
+         * tables first, so a lookup never finds the window it is looking from.
+         */
+        void add(int symbol) {
+            if (length == HISTORY) {
+                compact();
+            }
+            for (int l = 0; l < LENGTHS.length; l++) {
+                if (length >= LENGTHS[l]) {
+                    int entry = (l << TABLE_BITS) + slotOf(hash[l]);
+                    tableHash[entry] = hash[l];
+                    tableEnd[entry] = length;
+                }
+            }
+            symbols[length++] = (char) symbol;
+            for (int l = 0; l < LENGTHS.length; l++) {
+                hash[l] = hash[l] * HASH_BASE + symbol + 1;
+                if (length > LENGTHS[l]) {
+                    hash[l] -= (symbols[length - 1 - LENGTHS[l]] + 1) * dropFactor[l];
+                }
+            }
+        }
+
+        /**
+         * Index of the last symbol of the latest earlier occurrence of the
+         * most recent symbols, trying the longest window first; -1 if none.
+         */
+        int match() {
+            for (int l = 0; l < LENGTHS.length; l++) {
+                int window = LENGTHS[l];
+                if (length <= window) {
+                    continue;
+                }
+                int entry = (l << TABLE_BITS) + slotOf(hash[l]);
+                int end = tableEnd[entry];
+                if (end == 0 || tableHash[entry] != hash[l] || !same(end, window)) {
+                    continue;
+                }
+                return end - 1;
+            }
+            return -1;
+        }
+
+        //Whether the window ending before end holds the same symbols as the newest one
+        private boolean same(int end, int window) {
+            for (int i = 1; i <= window; i++) {
+                if (symbols[end - i] != symbols[length - i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        //Drops the older half and rebuilds the hashes and tables from the rest
+        private void compact() {
+            int keep = HISTORY / 2;
+            System.arraycopy(symbols, length - keep, symbols, 0, keep);
+            Arrays.fill(tableEnd, 0);
+            Arrays.fill(hash, 0);
+            length = 0;
+            for (int i = 0; i < keep; i++) {
+                add(symbols[i]);
+            }
+        }
+
+        private static int slotOf(long h) {
+            return (int) (h ^ (h >>> 29) ^ (h >>> 47)) & TABLE_MASK;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package gj.eh;
+
+import java.io.PrintStream;
+
+/**
+ * Per-round CPU time of each stage of onScannedRobot, and of the movement modes
+ * in the run loop, so we can see how close a tick gets to Robocode's CPU
+ * constant before turns start being skipped.
+ *
+ * Each stage keeps a fixed log-linear histogram: exact below 8ns, then 8 buckets
+ * per power of two (about 12% resolution). Recording is a couple of array writes
+ * and never allocates.
+ */
+class TickProfiler {
+
+    static final int SCAN = 0;
+    static final int TRACK = 1;
+    static final int SWITCH = 2;
+    static final int FIRE = 3;
+    //Movement, timed in the run loop's tick() rather than the scan
+    static final int SURF = 4;
+    static final int RISK = 5;
+    static final int GRAVITY = 6;
+    private static final String[] STAGE_NAMES = {"scan", "track", "switch", "fire", "surf", "risk", "gravity"};
+    static final int STAGES = STAGE_NAMES.length;
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = 64 * SUB_BUCKETS;
+
+    private final int[][] counts = new int[STAGE_NAMES.length][BUCKETS];
+    private final int[] samples = new int[STAGE_NAMES.length];
+    private final long[] max = new long[STAGE_NAMES.length];
+    private int skippedTurns;
+
+    void record(int stage, long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts[stage][bucket(nanos)]++;
+        samples[stage]++;
+        if (nanos > max[stage]) {
+            max[stage] = nanos;
+        }
+    }
+
+    /**
+     * Records the time since {@code start} and returns now, to start the next stage.
+     */
+    long lap(int stage, long start) {
+        long now = System.nanoTime();
+        record(stage, now - start);
+        return now;
+    }
+
+    /**
+     * Adds another profiler's samples to this one, e.g. to total up the rounds of a battle.
+     */
+    void add(TickProfiler other) {
+        for (int stage = 0; stage < STAGE_NAMES.length; stage++) {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[stage][i] += other.counts[stage][i];
+            }
+            samples[stage] += other.samples[stage];
+            max[stage] = Math.max(max[stage], other.max[stage]);
+        }
+        skippedTurns += other.skippedTurns;
+    }
+
+    static String getStageName(int stage) {
+        return STAGE_NAMES[stage];
+    }
+
+    void skippedTurn() {
+        skippedTurns++;
+    }
+
+    int getSamples(int stage) {
+        return samples[stage];
+    }
+
+    long getMax(int stage) {
+        return max[stage];
+    }
+
+    /**
+     * Upper edge of the bucket holding the given percentile (0-100), capped at the true max.
+     */
+    long percentile(int stage, double percentile) {
+        if (samples[stage] == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(samples[stage] * percentile / 100.0);
+        if (rank < 1) {
+            rank = 1;
+        }
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[stage][i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), max[stage]);
+            }
+        }
+        return max[stage];
+    }
+
+    /**
+     * CSV header matching {@link #writeRound(PrintStream, int)}.
+     */
+    static void writeHeader(PrintStream out) {
+        out.println("round,stage,samples,p50_ns,p99_ns,max_ns,skipped_turns");
+    }
+
+    void writeRound(PrintStream out, int round) {
+        for (int stage = 0; stage < STAGE_NAMES.length; stage++) {
+            out.println(round + "," + STAGE_NAMES[stage] + "," + samples[stage] + ","
+                    + percentile(stage, 50) + "," + percentile(stage, 99) + "," + max[stage] + ","
+                    + skippedTurns);
+        }
+    }
+
+    private static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long bucketUpperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int sub = bucket % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return ((SUB_BUCKETS + sub) * width) + width - 1;
+    }
+}
@@ -0,0 +1,150 @@
+package gj.eh;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Virtual guns: every aim of every gun is fired as a virtual bullet each
+ * time we aim, whether or not the real gun fires, and the real gun follows
+ * whichever gun has been hitting the enemy best.
+ *
+ * Each volley is stamped on the wave going out at the enemy (see
+ * {@link Waves}) with what every gun aimed at; when the wave breaks over the
+ * enemy, a gun scores if its aim passes within half a robot width of where
+ * the enemy actually went. That is one pass over the guns per volley. Scores decay so the
+ * choice follows an enemy that changes how it moves, and are kept per enemy
+ * name across rounds.
+ *
+ * Guns within {@link #CONTENDER} of the best score are blended as unit
+ * vectors rather than picked between, so two close aims either side of
+ * north come out north, never south as a plain average of the angles would.
+ *
+ * Nothing allocates after an enemy's first scan.
+ */
+class VirtualGuns {
+
+    static final int LINEAR = 0;
+    static final int CIRCULAR = 1;
+    static final int LEAD = 2;
+    static final int GUESS_FACTOR = 3;
+    static final int KD_TREE = 4;
+    static final int PATTERN = 5;
+    static final int GUNS = 6;
+
+    //Starting scores, linear and circular in the split the gun used before it learned anything
+    private static final double[] PRIOR = {0.4, 0.25, 0.05, 0.1, 0.1, 0.1};
+    //Prior counts for as many volleys, so one early hit doesn't decide it
+    private static final double PRIOR_VOLLEYS = 10;
+    private static final double DECAY = 0.99;
+    //Guns scoring at least this share of the best are blended with it
+    private static final double CONTENDER = 0.9;
+
+    private static final double HALF_ROBOT = 18;
+
+    //Scores per enemy name, kept for the whole battle
+    private static final HashMap<String, double[]> SCORES = new HashMap<String, double[]>();
+
+    private double[][] score = new double[16][];
+
+    //Each gun's bearing in radians, filled in before aim() and stamp()
+    final double[] aims = new double[GUNS];
+
+    /**
+     * Forgets every enemy's scores; replays call this so each pass starts
+     * from the same state.
+     */
+    static void clearScores() {
+        SCORES.clear();
+    }
+
+    /**
+     * Binds {@code slot} to the named enemy's scores, made on the first
+     * sight of the name in the battle.
+     */
+    void attach(int slot, String name) {
+        if (slot >= score.length) {
+            score = Arrays.copyOf(score, Math.max(slot + 1, score.length * 2));
+        }
+        if (score[slot] != null) {
+            return;
+        }
+        double[] scores = SCORES.get(name);
+        if (scores == null) {
+            scores = new double[GUNS];
+            for (int g = 0; g < GUNS; g++) {
+                scores[g] = PRIOR[g] * PRIOR_VOLLEYS;
+            }
+            SCORES.put(name, scores);
+        }
+        score[slot] = scores;
+    }
+
+    /**
+     * Gun with the best score against {@code slot}.
+     */
+    int best(int slot) {
+        double[] scores = score[slot];
+        int best = 0;
+        for (int g = 1; g < GUNS; g++) {
+            if (scores[g] > scores[best]) {
+                best = g;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Bearing in radians for the real gun: the best gun's aim, blended with
+     * any gun scoring nearly as well.
+     */
+    double aim(int slot) {
+        double[] scores = score[slot];
+        int best = best(slot);
+        double threshold = scores[best] * CONTENDER;
+        double sin = 0;
+        double cos = 0;
+        for (int g = 0; g < GUNS; g++) {
+            if (scores[g] >= threshold) {
+                sin += scores[g] * Math.sin(aims[g]);
+                cos += scores[g] * Math.cos(aims[g]);
+            }
+        }
+        //Contenders nearly opposite cancel out; trust the best alone
+        if (sin * sin + cos * cos < 1e-6) {
+            return aims[best];
+        }
+        return Math.atan2(sin, cos);
+    }
+
+    /**
+     * Fires the {@link #aims} as a virtual volley on our wave.
+     */
+    void stamp(Waves waves, int wave) {
+        System.arraycopy(aims, 0, waves.aims, wave * GUNS, GUNS);
+    }
+
+    /**
+     * Scores each gun of an aimed wave that has reached the enemy, now at (x, y).
+     */
+    void judge(Waves waves, int wave, double x, double y) {
+        double dx = x - waves.x[wave];
+        double dy = y - waves.y[wave];
+        double actual = Math.atan2(dx, dy);
+        double tolerance = Math.atan(HALF_ROBOT / Math.max(Math.sqrt(dx * dx + dy * dy), HALF_ROBOT));
+        double[] scores = score[waves.slot[wave]];
+        for (int g = 0; g < GUNS; g++) {
+            double error = Math.abs(normalize(waves.aims[wave * GUNS + g] - actual));
+            scores[g] = scores[g] * DECAY + (error < tolerance ? 1 : 0);
+        }
+    }
+
+    private static double normalize(double angle) {
+        while (angle > Math.PI) {
+            angle -= 2 * Math.PI;
+        }
+        while (angle < -Math.PI) {
+            angle += 2 * Math.PI;
+        }
+        return angle;
+    }
+}
@@ -0,0 +1,74 @@
+package gj.eh;
+
+/**
+ * Bends a heading just enough to keep us off the walls. A point
+ * {@link #STICK} pixels out along the heading must stay inside the battlefield
+ * shrunk by our half size plus a small gap; while it doesn't, the heading is
+ * stepped round by {@link #STEP} radians in the direction we would rather
+ * turn. Held out that far ahead, the stick reaches a wall well before we
+ * could, so we slide along walls and round corners instead of running into
+ * them.
+ *
+ * Each step turns the stick by a fixed rotation, so it costs a few
+ * multiplications; the only trigonometry is one sin and cos per call. The
+ * battlefield is set once a round.
+ */
+class WallSmoothing {
+
+    static final double STICK = 120;
+    static final double STEP = 0.05;
+    //A full turn; past that no heading keeps the stick inside
+    private static final int MAX_STEPS = (int) Math.ceil(2 * Math.PI / STEP);
+    private static final double MARGIN = 18 + 4;
+    private static final double STEP_SIN = Math.sin(STEP);
+    private static final double STEP_COS = Math.cos(STEP);
+
+    private double minX;
+    private double minY;
+    private double maxX;
+    private double maxY;
+    private boolean hasField;
+
+    void setField(double width, double height) {
+        minX = MARGIN;
+        minY = MARGIN;
+        maxX = width - MARGIN;
+        maxY = height - MARGIN;
+        hasField = true;
+    }
+
+    boolean hasField() {
+        return hasField;
+    }
+
+    /**
+     * The heading in radians nearest {@code heading}, turning only in
+     * {@code direction} (1 clockwise, -1 anticlockwise), that keeps the stick
+     * from (x, y) inside the battlefield. {@code heading} itself if nothing does.
+     */
+    double smooth(double x, double y, double heading, double direction) {
+        return smooth(x, y, heading, direction, STICK);
+    }
+
+    /**
+     * As {@link #smooth(double, double, double, double)} with a shorter stick,
+     * for a move that stops within {@code stick} of us.
+     */
+    double smooth(double x, double y, double heading, double direction, double stick) {
+        double sin = Math.sin(heading);
+        double cos = Math.cos(heading);
+        double stepSin = direction < 0 ? -STEP_SIN : STEP_SIN;
+        for (int step = 0; step <= MAX_STEPS; step++) {
+            double stickX = x + stick * sin;
+            double stickY = y + stick * cos;
+            if (stickX >= minX && stickX <= maxX && stickY >= minY && stickY <= maxY) {
+                return heading + (direction < 0 ? -step : step) * STEP;
+            }
+            //Clockwise on the battlefield, where headings run clockwise from north
+            double nextSin = sin * STEP_COS + cos * stepSin;
+            cos = cos * STEP_COS - sin * stepSin;
+            sin = nextSin;
+        }
+        return heading;
+    }
+}
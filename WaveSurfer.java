@@ -0,0 +1,245 @@
+package gj.eh;
+
+import robocode.AdvancedRobot;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Wave surfing: dodging the bullets an enemy has fired at us by where its
+ * bullets have hit us before. Every enemy wave (see {@link Waves}) is a circle
+ * closing in on us, and where on it we are when it breaks, as a guess factor,
+ * decides whether its bullet finds us. Each hit counts the guess factor it
+ * came at in one of {@link #BINS} bins for the shooter, and the bins are the
+ * danger of each spot on its next waves.
+ *
+ * Each tick, three options are played forward under Robocode physics: orbit
+ * the wave's origin the way we are going, stop, or orbit the other way. Each
+ * option is followed until the nearest wave breaks and on until the one after
+ * it breaks, the danger where it leaves us on each summed (the second at half
+ * weight), and we take the safest option for this tick. The work is bounded
+ * by {@link #MAX_TICKS} simulated ticks per option whatever the waves in
+ * flight, so surfing costs at most a few hundred predictor steps a tick.
+ *
+ * Hit counts are kept per shooter name across rounds; after a shooter's
+ * first scan nothing allocates.
+ */
+class WaveSurfer {
+
+    static final int BINS = 31;
+    private static final int MIDDLE = (BINS - 1) / 2;
+
+    //Waves looked at, nearest first, and ticks simulated per option
+    static final int MAX_WAVES = 2;
+    static final int MAX_TICKS = 100;
+
+    //Options, in the order they are tried; ties go to the earlier
+    private static final int FORWARD = 1;
+    private static final int STOP = 0;
+    private static final int REVERSE = -1;
+
+    //Orbit out of a shooter's way while nearer than this
+    private static final double RETREAT_DISTANCE = 450;
+    private static final double MAX_RETREAT_ANGLE = 0.6;
+    //Far enough that the predictor never brakes before the next command
+    private static final double GO = 100;
+
+    private static final double ROLL = 0.95;
+
+    //Hit counts per shooter name, kept for the whole battle
+    private static final HashMap<String, double[]> STATS = new HashMap<String, double[]>();
+
+    private double[][] stats = new double[16][];
+
+    //Which way we orbit, 1 clockwise or -1
+    private int direction = 1;
+
+    private final MovePredictor predictor = new MovePredictor();
+    private final WallSmoothing wallSmoothing;
+    private final int[] surfed = new int[MAX_WAVES];
+
+    //Output of drive(), the command for one tick
+    private double turn;
+    private double distance;
+
+    WaveSurfer(WallSmoothing wallSmoothing) {
+        this.wallSmoothing = wallSmoothing;
+    }
+
+    /**
+     * Forgets every shooter's hit counts; replays call this so each pass
+     * starts from the same state.
+     */
+    static void clearStats() {
+        STATS.clear();
+    }
+
+    /**
+     * Binds {@code slot} to the named shooter's hit counts. A new shooter is
+     * assumed to aim straight at us, the guess factor most guns start with.
+     */
+    void attach(int slot, String name) {
+        if (slot >= stats.length) {
+            stats = Arrays.copyOf(stats, Math.max(slot + 1, stats.length * 2));
+        }
+        if (stats[slot] != null) {
+            return;
+        }
+        double[] hits = STATS.get(name);
+        if (hits == null) {
+            hits = new double[BINS];
+            visit(hits, MIDDLE);
+            STATS.put(name, hits);
+        }
+        stats[slot] = hits;
+    }
+
+    /**
+     * The wave from {@code shooter} that a bullet of {@code bulletSpeed} now at
+     * (x, y) is on, or -1 if none is.
+     */
+    int waveOf(Waves waves, int shooter, long now, double x, double y, double bulletSpeed) {
+        for (int i = 0; i < waves.count; i++) {
+            if (waves.owner[i] != Waves.THEIRS || waves.slot[i] != shooter
+                    || Math.abs(waves.speed[i] - bulletSpeed) > 0.1) {
+                continue;
+            }
+            double dx = x - waves.x[i];
+            double dy = y - waves.y[i];
+            if (Math.abs(Math.sqrt(dx * dx + dy * dy) - waves.radius(i, now)) <= 1.5 * bulletSpeed) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Counts the guess factor a bullet on the shooter's wave hit us at, (x, y).
+     */
+    void learn(Waves waves, int wave, double x, double y) {
+        visit(stats[waves.slot[wave]], bin(waves.guessFactor(wave, x, y)));
+    }
+
+    /**
+     * Queues this tick's move away from the enemy bullets in flight. Returns
+     * false, leaving the robot alone, if no enemy wave is still coming.
+     */
+    boolean surf(AdvancedRobot bot, Waves waves, long now) {
+        int surfing = nearestWaves(waves, now, bot.getX(), bot.getY());
+        if (surfing == 0) {
+            return false;
+        }
+        int best = direction;
+        double bestDanger = danger(bot, waves, now, surfing, direction);
+        double danger = danger(bot, waves, now, surfing, STOP);
+        if (danger < bestDanger) {
+            best = STOP;
+            bestDanger = danger;
+        }
+        if (danger(bot, waves, now, surfing, -direction) < bestDanger) {
+            best = -direction;
+        }
+        if (best != STOP) {
+            direction = best;
+        }
+        int wave = surfed[0];
+        drive(bot.getX(), bot.getY(), bot.getHeadingRadians(), waves.x[wave], waves.y[wave], best);
+        bot.setTurnRightRadians(turn);
+        bot.setAhead(distance);
+        return true;
+    }
+
+    //Fills surfed with up to MAX_WAVES enemy waves still short of (x, y), soonest to break first
+    private int nearestWaves(Waves waves, long now, double x, double y) {
+        int surfing = 0;
+        for (int i = 0; i < waves.count; i++) {
+            if (waves.owner[i] != Waves.THEIRS || stats[waves.slot[i]] == null || waves.reached(i, now, x, y)) {
+                continue;
+            }
+            double ticks = ticksToBreak(waves, i, now, x, y);
+            int at = surfing;
+            while (at > 0 && ticksToBreak(waves, surfed[at - 1], now, x, y) > ticks) {
+                at--;
+            }
+            if (at == MAX_WAVES) {
+                continue;
+            }
+            for (int j = Math.min(surfing, MAX_WAVES - 1); j > at; j--) {
+                surfed[j] = surfed[j - 1];
+            }
+            surfed[at] = i;
+            surfing = Math.min(surfing + 1, MAX_WAVES);
+        }
+        return surfing;
+    }
+
+    private static double ticksToBreak(Waves waves, int i, long now, double x, double y) {
+        double dx = x - waves.x[i];
+        double dy = y - waves.y[i];
+        return (Math.sqrt(dx * dx + dy * dy) - waves.radius(i, now)) / waves.speed[i];
+    }
+
+    //Hit counts where the option leaves us as each wave breaks, weighted by the bullet's power
+    private double danger(AdvancedRobot bot, Waves waves, long now, int surfing, int option) {
+        predictor.reset(bot);
+        double danger = 0;
+        double weight = 1;
+        int ticks = 0;
+        for (int w = 0; w < surfing; w++) {
+            int wave = surfed[w];
+            while (ticks < MAX_TICKS && !waves.reached(wave, now + ticks, predictor.x, predictor.y)) {
+                drive(predictor.x, predictor.y, predictor.heading, waves.x[wave], waves.y[wave], option);
+                predictor.command(turn, distance);
+                predictor.step();
+                ticks++;
+            }
+            double power = (20 - waves.speed[wave]) / 3;
+            danger += weight * power * stats[waves.slot[wave]][bin(waves.guessFactor(wave, predictor.x, predictor.y))];
+            weight /= 2;
+        }
+        return danger;
+    }
+
+    //Sets turn and distance to orbit (originX, originY) in option's direction, wall smoothed, or to brake for STOP
+    private void drive(double x, double y, double heading, double originX, double originY, int option) {
+        if (option == STOP) {
+            turn = 0;
+            distance = 0;
+            return;
+        }
+        double dx = x - originX;
+        double dy = y - originY;
+        double range = Math.sqrt(dx * dx + dy * dy);
+        double retreat = Math.max(0, Math.min(MAX_RETREAT_ANGLE, (RETREAT_DISTANCE - range) / RETREAT_DISTANCE));
+        double goal = wallSmoothing.smooth(x, y, Math.atan2(dx, dy) + option * (Math.PI / 2 - retreat), option);
+        turn = normalize(goal - heading);
+        distance = GO;
+        //Back up rather than turn round
+        if (Math.abs(turn) > Math.PI / 2) {
+            turn = normalize(turn + Math.PI);
+            distance = -GO;
+        }
+    }
+
+    private static int bin(double guessFactor) {
+        return (int) Math.round(guessFactor * MIDDLE) + MIDDLE;
+    }
+
+    //Rolls the counts and adds a hit at bin, smoothed over its neighbours
+    private static void visit(double[] hits, int bin) {
+        for (int b = 0; b < BINS; b++) {
+            double d = b - bin;
+            hits[b] = hits[b] * ROLL + 1 / (d * d + 1);
+        }
+    }
+
+    private static double normalize(double angle) {
+        while (angle > Math.PI) {
+            angle -= 2 * Math.PI;
+        }
+        while (angle < -Math.PI) {
+            angle += 2 * Math.PI;
+        }
+        return angle;
+    }
+}
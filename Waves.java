@@ -0,0 +1,150 @@
+package gj.eh;
+
+/**
+ * Every bullet wave in flight, ours and the enemies', in one preallocated
+ * pool. A wave is a circle spreading from where a bullet was (or could have
+ * been) fired at the bullet's speed, 20 - 3 * power, so at any tick it tells
+ * where that bullet can be and when it has gone past its target.
+ *
+ * Our waves go out at an enemy on each scan of it and carry what the guns
+ * need to learn from them when they break over it: the guess-factor segment
+ * and the virtual guns' aims if we were aiming at it, and the nearest-neighbour
+ * features always. Enemy waves are inferred from the energy an enemy loses
+ * when it fires, and go out at us.
+ *
+ * Live waves are the first {@link #count} entries of flat arrays; removing
+ * one moves the last into its place, so the pool never has holes, walking
+ * it costs only the live waves, and nothing allocates. If the pool fills,
+ * the oldest wave makes room.
+ */
+class Waves {
+
+    static final int CAPACITY = 256;
+
+    static final int OURS = 0;
+    static final int THEIRS = 1;
+
+    int count;
+
+    final int[] owner = new int[CAPACITY];
+    //Enemy slot: the target of our waves, the shooter of theirs
+    final int[] slot = new int[CAPACITY];
+    final long[] time = new long[CAPACITY];
+    final double[] x = new double[CAPACITY];
+    final double[] y = new double[CAPACITY];
+    final double[] speed = new double[CAPACITY];
+    //Radians, from the origin to the target at launch
+    final double[] bearing = new double[CAPACITY];
+    //Which way the target was orbiting the origin, 1 clockwise or -1
+    final double[] direction = new double[CAPACITY];
+
+    //Firing context of our waves, filled in by the guns
+    final boolean[] aimed = new boolean[CAPACITY];
+    final int[] segment = new int[CAPACITY];
+    final double[] features = new double[CAPACITY * KdTreeGun.DIMS];
+    final double[] aims = new double[CAPACITY * VirtualGuns.GUNS];
+
+    /**
+     * Starts a wave and returns its index, which stays valid until a wave
+     * is removed, as one is by a launch into a full pool.
+     */
+    int launch(int waveOwner, int waveSlot, long launchTime, double originX, double originY, double waveSpeed,
+            double waveBearing, double waveDirection) {
+        if (count == CAPACITY) {
+            remove(oldest());
+        }
+        int i = count++;
+        owner[i] = waveOwner;
+        slot[i] = waveSlot;
+        time[i] = launchTime;
+        x[i] = originX;
+        y[i] = originY;
+        speed[i] = waveSpeed;
+        bearing[i] = waveBearing;
+        direction[i] = waveDirection;
+        aimed[i] = false;
+        return i;
+    }
+
+    /**
+     * Distance the wave has spread by {@code now}.
+     */
+    double radius(int i, long now) {
+        return (now - time[i]) * speed[i];
+    }
+
+    /**
+     * Whether the wave has spread as far as the point (px, py) by {@code now}.
+     */
+    boolean reached(int i, long now, double px, double py) {
+        double dx = px - x[i];
+        double dy = py - y[i];
+        double r = radius(i, now);
+        return r * r >= dx * dx + dy * dy;
+    }
+
+    /**
+     * Guess factor of the point (px, py) on the wave: its angle from the
+     * launch bearing, in the target's orbit direction, over the maximum
+     * escape angle, clamped to [-1, 1].
+     */
+    double guessFactor(int i, double px, double py) {
+        double offset = Math.atan2(px - x[i], py - y[i]) - bearing[i];
+        while (offset > Math.PI) {
+            offset -= 2 * Math.PI;
+        }
+        while (offset < -Math.PI) {
+            offset += 2 * Math.PI;
+        }
+        return Math.max(-1, Math.min(1, offset * direction[i] / maxEscapeAngle(speed[i])));
+    }
+
+    static double maxEscapeAngle(double bulletSpeed) {
+        return Math.asin(8 / bulletSpeed);
+    }
+
+    /**
+     * Removes wave i by moving the last wave into its place. A loop over the
+     * waves that removes i must look at i again.
+     */
+    void remove(int i) {
+        int last = --count;
+        if (i == last) {
+            return;
+        }
+        owner[i] = owner[last];
+        slot[i] = slot[last];
+        time[i] = time[last];
+        x[i] = x[last];
+        y[i] = y[last];
+        speed[i] = speed[last];
+        bearing[i] = bearing[last];
+        direction[i] = direction[last];
+        aimed[i] = aimed[last];
+        segment[i] = segment[last];
+        System.arraycopy(features, last * KdTreeGun.DIMS, features, i * KdTreeGun.DIMS, KdTreeGun.DIMS);
+        System.arraycopy(aims, last * VirtualGuns.GUNS, aims, i * VirtualGuns.GUNS, VirtualGuns.GUNS);
+    }
+
+    /**
+     * Removes our waves at an enemy that died. Its own bullets fly on, so its waves stay.
+     */
+    void removeTarget(int enemy) {
+        for (int i = 0; i < count; i++) {
+            if (owner[i] == OURS && slot[i] == enemy) {
+                remove(i);
+                i--;
+            }
+        }
+    }
+
+    private int oldest() {
+        int oldest = 0;
+        for (int i = 1; i < count; i++) {
+            if (time[i] < time[oldest]) {
+                oldest = i;
+            }
+        }
+        return oldest;
+    }
+}
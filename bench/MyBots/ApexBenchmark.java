@@ -0,0 +1,182 @@
+package MyBots;
+
+import gj.eh.bench.Microbench;
+import gj.eh.bench.ScanFactory;
+import gj.eh.bench.StubPeer;
+import robocode.Robot;
+import robocode.ScannedRobotEvent;
+
+/**
+ * The history-scanning targeting of ApexV4 and ApexV5. Per version, one bot is
+ * primed with a spinbot's scans and one with a wall hugger's, so the detectors
+ * run their full loops.
+ */
+public final class ApexBenchmark {
+
+    /**
+     * One version's targeting methods. The versions share no types, each has
+     * its own inner {@code EnemyData}, so the fixture reaches them through this.
+     */
+    interface Targeting<B extends Robot, E> {
+        B newBot();
+
+        E enemy(B bot, ScannedRobotEvent scan);
+
+        double distance(E enemy);
+
+        double predictEnemyPosition(B bot, E enemy, double bulletPower);
+
+        double predictLinear(B bot, E enemy, double bulletSpeed, long time);
+
+        double predictLinearWithLead(B bot, E enemy, double bulletSpeed, long time);
+
+        double predictCircular(B bot, E enemy, double bulletSpeed, long time);
+
+        boolean detectSpinbot(B bot);
+
+        boolean detectWallHugger(B bot);
+    }
+
+    static final Targeting<ApexV4, ApexV4.EnemyData> APEX_V4 = new Targeting<ApexV4, ApexV4.EnemyData>() {
+        public ApexV4 newBot() {
+            return new ApexV4();
+        }
+
+        public ApexV4.EnemyData enemy(ApexV4 bot, ScannedRobotEvent scan) {
+            return bot.new EnemyData(scan, 1, bot);
+        }
+
+        public double distance(ApexV4.EnemyData enemy) {
+            return enemy.distance;
+        }
+
+        public double predictEnemyPosition(ApexV4 bot, ApexV4.EnemyData enemy, double bulletPower) {
+            return bot.predictEnemyPosition(enemy, bulletPower);
+        }
+
+        public double predictLinear(ApexV4 bot, ApexV4.EnemyData enemy, double bulletSpeed, long time) {
+            return bot.predictLinear(enemy, bulletSpeed, time);
+        }
+
+        public double predictLinearWithLead(ApexV4 bot, ApexV4.EnemyData enemy, double bulletSpeed, long time) {
+            return bot.predictLinearWithLead(enemy, bulletSpeed, time);
+        }
+
+        public double predictCircular(ApexV4 bot, ApexV4.EnemyData enemy, double bulletSpeed, long time) {
+            return bot.predictCircular(enemy, bulletSpeed, time);
+        }
+
+        public boolean detectSpinbot(ApexV4 bot) {
+            return bot.detectSpinbot();
+        }
+
+        public boolean detectWallHugger(ApexV4 bot) {
+            return bot.detectWallHugger();
+        }
+    };
+
+    static final Targeting<ApexV5, ApexV5.EnemyData> APEX_V5 = new Targeting<ApexV5, ApexV5.EnemyData>() {
+        public ApexV5 newBot() {
+            return new ApexV5();
+        }
+
+        public ApexV5.EnemyData enemy(ApexV5 bot, ScannedRobotEvent scan) {
+            return bot.new EnemyData(scan, 1, bot);
+        }
+
+        public double distance(ApexV5.EnemyData enemy) {
+            return enemy.distance;
+        }
+
+        public double predictEnemyPosition(ApexV5 bot, ApexV5.EnemyData enemy, double bulletPower) {
+            return bot.predictEnemyPosition(enemy, bulletPower);
+        }
+
+        public double predictLinear(ApexV5 bot, ApexV5.EnemyData enemy, double bulletSpeed, long time) {
+            return bot.predictLinear(enemy, bulletSpeed, time);
+        }
+
+        public double predictLinearWithLead(ApexV5 bot, ApexV5.EnemyData enemy, double bulletSpeed, long time) {
+            return bot.predictLinearWithLead(enemy, bulletSpeed, time);
+        }
+
+        public double predictCircular(ApexV5 bot, ApexV5.EnemyData enemy, double bulletSpeed, long time) {
+            return bot.predictCircular(enemy, bulletSpeed, time);
+        }
+
+        public boolean detectSpinbot(ApexV5 bot) {
+            return bot.detectSpinbot();
+        }
+
+        public boolean detectWallHugger(ApexV5 bot) {
+            return bot.detectWallHugger();
+        }
+    };
+
+    private static final double[] POWERS = {1.0, 1.5, 2.0, 3.0};
+
+    /** Detectors bail out below five entries and the index wraps at ten. */
+    private static final int PRIMING_SCANS = 8;
+
+    private ApexBenchmark() {
+    }
+
+    public static void addTo(Microbench bench) {
+        addTo(bench, "ApexV4", APEX_V4);
+        addTo(bench, "ApexV5", APEX_V5);
+    }
+
+    static <B extends Robot, E> void addTo(Microbench bench, String name, final Targeting<B, E> bot) {
+        final B spinTracker = primedBot(bot, ScanFactory.spinbot(PRIMING_SCANS));
+        final B wallTracker = primedBot(bot, ScanFactory.wallHugger(PRIMING_SCANS));
+
+        ScannedRobotEvent[][] scans = ScanFactory.scanPairs(42);
+        final E[] enemies = newArray(ScanFactory.COUNT);
+        final double[] speeds = new double[ScanFactory.COUNT];
+        final long[] times = new long[ScanFactory.COUNT];
+        for (int i = 0; i < ScanFactory.COUNT; i++) {
+            enemies[i] = bot.enemy(spinTracker, scans[i][1]);
+            speeds[i] = 20 - 3 * POWERS[i & 3];
+            times[i] = (long) (bot.distance(enemies[i]) / speeds[i]);
+        }
+        final int mask = ScanFactory.MASK;
+
+        bench.add(name + ".predictEnemyPosition[spinbot]",
+                i -> bot.predictEnemyPosition(spinTracker, enemies[i & mask], POWERS[i & 3]));
+        bench.add(name + ".predictEnemyPosition[wallHugger]",
+                i -> bot.predictEnemyPosition(wallTracker, enemies[i & mask], POWERS[i & 3]));
+        bench.add(name + ".predictLinear",
+                i -> bot.predictLinear(spinTracker, enemies[i & mask], speeds[i & mask], times[i & mask]));
+        bench.add(name + ".predictLinearWithLead",
+                i -> bot.predictLinearWithLead(spinTracker, enemies[i & mask], speeds[i & mask], times[i & mask]));
+        bench.add(name + ".predictCircular",
+                i -> bot.predictCircular(spinTracker, enemies[i & mask], speeds[i & mask], times[i & mask]));
+        bench.add(name + ".detectSpinbot",
+                i -> bot.detectSpinbot(spinTracker) ? i : 0);
+        bench.add(name + ".detectWallHugger",
+                i -> bot.detectWallHugger(wallTracker) ? i : 0);
+    }
+
+    private static <B extends Robot> B primedBot(Targeting<B, ?> bot, ScannedRobotEvent[] scans) {
+        StubPeer peer = new StubPeer();
+        B robot = bot.newBot();
+        robot.setPeer(peer);
+        for (ScannedRobotEvent scan : scans) {
+            peer.time++;
+            robot.onScannedRobot(scan);
+        }
+        return robot;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> E[] newArray(int length) {
+        return (E[]) new Object[length];
+    }
+
+    public static void main(String[] args) {
+        Microbench bench = new Microbench();
+        bench.configure(args);
+        addTo(bench);
+        bench.run(System.out);
+    }
+}
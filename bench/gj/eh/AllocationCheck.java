@@ -0,0 +1,194 @@
+package gj.eh;
+
+import gj.eh.bench.StubPeer;
+import robocode.RobotDeathEvent;
+import robocode.ScannedRobotEvent;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+
+/**
+ * Fails if ApexusBot allocates anything per tick once warmed up. Drives
+ * thousands of synthetic scans through onScannedRobot and the run loop's
+ * tick() on a {@link StubPeer}, and compares the thread's allocated bytes
+ * before and after, for up to {@link #WINDOWS} windows of scans until one
+ * comes out clean. There are three passes, each with a fresh bot set up as
+ * run() does it: a melee with bullets fired and a death, moving by minimum
+ * risk; the same melee with anti-gravity switched on by its file in the data
+ * directory; and a 1v1 against an enemy that keeps firing, so there are waves
+ * to surf. A pass fails as well if its movement never ran.
+ *
+ * <pre>
+ * java -cp out gj.eh.AllocationCheck [-scans N]
+ * </pre>
+ *
+ * Exits 1 on any allocation, so it can gate a build. Needs a HotSpot-style JVM
+ * that reports per-thread allocation.
+ */
+public final class AllocationCheck {
+
+    private static final int ENEMIES = 5;
+    //Scans between the 1v1 enemy's shots, so one of its waves is nearly always in flight
+    private static final int DUEL_FIRE_SCANS = 10;
+    private static final int WARMUP_SCANS = 50000;
+    //The JIT can still be queueing compiles after the warmup, which allocates a few bytes on our thread, so a
+    //pass gets this many measured windows and fails only if every one allocates; per-tick garbage shows in all
+    private static final int WINDOWS = 3;
+
+    private AllocationCheck() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int scans = 20000;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-scans")) {
+                scans = Integer.parseInt(args[++i]);
+            } else {
+                System.err.println("Usage: AllocationCheck [-scans N]");
+                System.exit(2);
+            }
+        }
+
+        com.sun.management.ThreadMXBean threads = threadBean();
+        if (threads == null || !threads.isThreadAllocatedMemorySupported()) {
+            System.err.println("This JVM does not report per-thread allocation");
+            System.exit(2);
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        int events = WARMUP_SCANS + WINDOWS * scans;
+        ScannedRobotEvent[] melee = melee(events);
+        RobotDeathEvent death = new RobotDeathEvent("enemy " + (ENEMIES - 1));
+        boolean ok = pass("melee", threads, melee, ENEMIES, death, false, TickProfiler.RISK, scans);
+        ok &= pass("gravity", threads, melee, ENEMIES, death, true, TickProfiler.GRAVITY, scans);
+        ok &= pass("1v1", threads, duel(events), 1, null, false, TickProfiler.SURF, scans);
+        if (!ok) {
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    /**
+     * Warms a fresh bot up on the first events, then measures windows of
+     * {@code scans} of the rest. The bot gets an empty data directory of its
+     * own, with the anti-gravity switch file in it if {@code antiGravity}. Every event is built up front so only the
+     * bot's own work is measured. False if every window allocated, or the
+     * {@code movement} stage never ran in the clean one.
+     */
+    private static boolean pass(String name, com.sun.management.ThreadMXBean threads, ScannedRobotEvent[] events,
+            int others, RobotDeathEvent death, boolean antiGravity, int movement, int scans) throws IOException {
+        StubPeer peer = new StubPeer();
+        peer.others = others;
+        peer.dataDirectory = Files.createTempDirectory("AllocationCheck").toFile();
+        File antiGravitySwitch = new File(peer.dataDirectory, "antigravity.on");
+        if (antiGravity && !antiGravitySwitch.createNewFile()) {
+            throw new IOException("Could not create " + antiGravitySwitch);
+        }
+        ApexusBot bot = new ApexusBot();
+        bot.setPeer(peer);
+        try {
+            bot.setUpMovement();
+        } finally {
+            antiGravitySwitch.delete();
+            peer.dataDirectory.delete();
+        }
+        drive(bot, peer, events, 0, WARMUP_SCANS, null);
+
+        long threadId = Thread.currentThread().getId();
+        long overhead = threads.getThreadAllocatedBytes(threadId);
+        overhead = threads.getThreadAllocatedBytes(threadId) - overhead;
+        long allocated = 0;
+        int moves = 0;
+        int window = 0;
+        while (window < WINDOWS) {
+            moves = bot.profiler.getSamples(movement);
+            long before = threads.getThreadAllocatedBytes(threadId);
+            drive(bot, peer, events, WARMUP_SCANS + window * scans, scans, death);
+            allocated = threads.getThreadAllocatedBytes(threadId) - before - overhead;
+            moves = bot.profiler.getSamples(movement) - moves;
+            window++;
+            if (allocated <= 0) {
+                break;
+            }
+        }
+
+        System.out.printf("%-8s %d scans in window %d, %d %s moves, %d bytes allocated (%.3f bytes/scan)%n", name,
+                scans, window, moves, TickProfiler.getStageName(movement), allocated, (double) allocated / scans);
+        if (allocated > 0) {
+            System.out.println("FAIL: the scan/tick hot path allocates");
+            return false;
+        }
+        if (moves == 0) {
+            System.out.println("FAIL: no " + TickProfiler.getStageName(movement) + " moves, the pass checked nothing");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * One scan per tick, round-robin over the enemies like a melee radar sweep.
+     * Firing is allowed every other tick; {@code death}, if given, is sent halfway.
+     */
+    private static void drive(ApexusBot bot, StubPeer peer, ScannedRobotEvent[] events,
+            int from, int count, RobotDeathEvent death) {
+        for (int i = from; i < from + count; i++) {
+            peer.time++;
+            peer.gunHeat = (i & 1) == 0 ? 0 : 0.1;
+            peer.x = 400 + 200 * Math.sin(i * 0.01);
+            peer.y = 300 + 150 * Math.cos(i * 0.013);
+            bot.onScannedRobot(events[i]);
+            if (death != null && i == from + count / 2) {
+                peer.others--;
+                bot.onRobotDeath(death);
+            }
+            bot.tick();
+        }
+    }
+
+    /**
+     * Enemies circling at different speeds, each firing (a 2 point energy drop)
+     * every 30 of its scans.
+     */
+    private static ScannedRobotEvent[] melee(int count) {
+        String[] names = new String[ENEMIES];
+        for (int e = 0; e < ENEMIES; e++) {
+            names[e] = "enemy " + e;
+        }
+        ScannedRobotEvent[] events = new ScannedRobotEvent[count];
+        for (int i = 0; i < count; i++) {
+            int e = i % ENEMIES;
+            int seen = i / ENEMIES;
+            double energy = 100 - 2 * ((seen / 30) % 40);
+            double bearing = Math.toRadians(e * 72 + seen * 0.7);
+            double distance = 150 + 100 * e + 40 * Math.sin(seen * 0.05);
+            double heading = Math.toRadians(seen * (2 + e));
+            double velocity = 8 * Math.sin(seen * 0.02 * (e + 1));
+            events[i] = new ScannedRobotEvent(names[e], energy, bearing, distance, heading, velocity, false);
+        }
+        return events;
+    }
+
+    /**
+     * One enemy circling at mid range, firing (a 2 point energy drop) every
+     * {@link #DUEL_FIRE_SCANS} scans.
+     */
+    private static ScannedRobotEvent[] duel(int count) {
+        ScannedRobotEvent[] events = new ScannedRobotEvent[count];
+        for (int i = 0; i < count; i++) {
+            double energy = 100 - 2 * ((i / DUEL_FIRE_SCANS) % 40);
+            double bearing = Math.toRadians(i * 0.7);
+            double distance = 350 + 100 * Math.sin(i * 0.01);
+            double heading = Math.toRadians(i * 3);
+            double velocity = 8 * Math.sin(i * 0.02);
+            events[i] = new ScannedRobotEvent("enemy", energy, bearing, distance, heading, velocity, false);
+        }
+        return events;
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        return bean instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean) bean : null;
+    }
+}
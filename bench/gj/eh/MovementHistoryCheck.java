@@ -0,0 +1,74 @@
+package gj.eh;
+
+import java.util.SplittableRandom;
+
+/**
+ * Fails if {@link MovementHistory#indexTicksBack} finds the wrong snapshot.
+ * Records melee-like scans, each enemy seen every 1 to 8 ticks and past the
+ * ring's length so it wraps, and after every scan compares each lookup from
+ * now back to beyond the oldest snapshot with a plain walk back through
+ * {@link MovementHistory#index}.
+ *
+ * <pre>
+ * java -cp out gj.eh.MovementHistoryCheck [-scans N]
+ * </pre>
+ *
+ * Exits 1 on the first mismatch, so it can gate a build.
+ */
+public final class MovementHistoryCheck {
+
+    private static final int SLOTS = 3;
+    private static final int MAX_GAP = 8;
+
+    private MovementHistoryCheck() {
+    }
+
+    public static void main(String[] args) {
+        int scans = 3 * MovementHistory.LENGTH;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-scans")) {
+                scans = Integer.parseInt(args[++i]);
+            } else {
+                System.err.println("Usage: MovementHistoryCheck [-scans N]");
+                System.exit(2);
+            }
+        }
+
+        MovementHistory history = new MovementHistory(SLOTS);
+        SplittableRandom random = new SplittableRandom(1);
+        long[] lastSeen = new long[SLOTS];
+        long lookups = 0;
+        for (int i = 0; i < scans; i++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                long now = lastSeen[slot] + 1 + random.nextInt(MAX_GAP);
+                history.record(slot, now, i, slot, 0, 0, 100);
+                lastSeen[slot] = now;
+                int span = (int) (now - history.time[history.index(slot, history.size(slot) - 1)]) + MAX_GAP;
+                for (int ticks = 0; ticks <= span; ticks++) {
+                    int expected = walkBack(history, slot, now - ticks);
+                    int found = history.indexTicksBack(slot, now, ticks);
+                    if (found != expected) {
+                        System.out.println("FAIL: slot " + slot + " at tick " + now + ", " + ticks
+                                + " ticks back: index " + found + ", expected " + expected);
+                        System.exit(1);
+                    }
+                    lookups++;
+                }
+            }
+        }
+
+        System.out.printf("%d scans of %d enemies, %d lookups%n", scans, SLOTS, lookups);
+        System.out.println("OK");
+    }
+
+    //The newest snapshot at or before tick, walking back one scan at a time; -1 if there is none
+    private static int walkBack(MovementHistory history, int slot, long tick) {
+        for (int back = 0; back < history.size(slot); back++) {
+            int i = history.index(slot, back);
+            if (history.time[i] <= tick) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
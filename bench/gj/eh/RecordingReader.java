@@ -0,0 +1,202 @@
+package gj.eh;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads a {@link BattleRecorder} log by memory-mapping it and walking the
+ * fixed-width records in place:
+ *
+ * <pre>
+ * RecordingReader log = new RecordingReader(file);
+ * while (log.next()) {
+ *     if (log.type() == BattleRecorder.SCAN) { ... log.value(1) ... }
+ * }
+ * </pre>
+ *
+ * Run it on a file for a per-round summary, or with {@code -csv} to dump every record:
+ * <pre>
+ * java -cp out gj.eh.RecordingReader [-csv] .data/gj.eh.ApexusBot/battle.rec
+ * </pre>
+ */
+public final class RecordingReader {
+
+    static final String[] TYPE_NAMES = {"round", "name", "pose", "scan", "fire", "hitByBullet", "bulletHit",
+            "bulletMissed", "nameMore"};
+
+    private static final int PAYLOAD_OFFSET = 8;
+
+    private final MappedByteBuffer records;
+    private final int recordCount;
+    private int position = -BattleRecorder.RECORD_SIZE;
+
+    public RecordingReader(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            // A log cut short mid-record loses only that record
+            recordCount = (int) (channel.size() / BattleRecorder.RECORD_SIZE);
+            records = channel.map(FileChannel.MapMode.READ_ONLY, 0, (long) recordCount * BattleRecorder.RECORD_SIZE);
+        } finally {
+            raf.close();
+        }
+    }
+
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Moves to the next record; false at the end of the log.
+     */
+    public boolean next() {
+        if (position / BattleRecorder.RECORD_SIZE + 1 >= recordCount) {
+            return false;
+        }
+        position += BattleRecorder.RECORD_SIZE;
+        return true;
+    }
+
+    /**
+     * Goes back to before the first record.
+     */
+    public void rewind() {
+        position = -BattleRecorder.RECORD_SIZE;
+    }
+
+    public int type() {
+        return records.get(position);
+    }
+
+    /**
+     * Enemy slot, or {@link BattleRecorder#NO_SLOT}.
+     */
+    public int slot() {
+        return records.get(position + 1) & 0xFF;
+    }
+
+    /**
+     * Tick of the record; the round number for ROUND records.
+     */
+    public int time() {
+        return records.getInt(position + 4);
+    }
+
+    /**
+     * The i-th float of the payload, see {@link BattleRecorder} for the layout per type.
+     */
+    public float value(int i) {
+        return records.getFloat(position + PAYLOAD_OFFSET + 4 * i);
+    }
+
+    /**
+     * Enemy name of a NAME record, with the rest of it from the NAME_MORE
+     * records after it.
+     */
+    public String name() {
+        int length = records.getShort(position + 2);
+        byte[] utf8 = new byte[length];
+        int record = position;
+        for (int i = 0; i < length; i++) {
+            if (i > 0 && i % BattleRecorder.NAME_BYTES == 0) {
+                record += BattleRecorder.RECORD_SIZE;
+                if (record / BattleRecorder.RECORD_SIZE >= recordCount
+                        || records.get(record) != BattleRecorder.NAME_MORE) {
+                    //Cut short at the end of the log
+                    length = i;
+                    break;
+                }
+            }
+            utf8[i] = records.get(record + PAYLOAD_OFFSET + i % BattleRecorder.NAME_BYTES);
+        }
+        return new String(utf8, 0, length, StandardCharsets.UTF_8);
+    }
+
+    public static void main(String[] args) throws IOException {
+        boolean csv = false;
+        String path = null;
+        for (String arg : args) {
+            if (arg.equals("-csv")) {
+                csv = true;
+            } else {
+                path = arg;
+            }
+        }
+        if (path == null) {
+            System.err.println("usage: RecordingReader [-csv] file");
+            System.exit(2);
+        }
+        RecordingReader log = new RecordingReader(new File(path));
+        if (csv) {
+            dump(log, System.out);
+        } else {
+            summarize(log, System.out);
+        }
+    }
+
+    private static void dump(RecordingReader log, PrintStream out) {
+        out.println("type,slot,time,v0,v1,v2,v3,v4,v5");
+        while (log.next()) {
+            int type = log.type();
+            if (type == BattleRecorder.NAME_MORE) {
+                //Printed with its NAME record
+                continue;
+            }
+            out.print(typeName(type) + "," + (log.slot() == BattleRecorder.NO_SLOT ? "" : log.slot()) + ","
+                    + log.time());
+            if (type == BattleRecorder.NAME) {
+                out.println("," + log.name());
+                continue;
+            }
+            for (int i = 0; i < 6; i++) {
+                out.print("," + log.value(i));
+            }
+            out.println();
+        }
+    }
+
+    private static void summarize(RecordingReader log, PrintStream out) {
+        out.printf("%-6s %8s %8s %8s %8s %8s %8s %8s%n", "Round", "Ticks", "Scans", "Enemies", "Shots", "Hits",
+                "Misses", "HitBy");
+        int round = -1;
+        int[] counts = new int[TYPE_NAMES.length];
+        int lastTime = 0;
+        int rounds = 0;
+        while (log.next()) {
+            int type = log.type();
+            if (type == BattleRecorder.ROUND) {
+                if (round >= 0) {
+                    printRound(out, round, lastTime, counts);
+                }
+                round = log.time();
+                rounds++;
+                Arrays.fill(counts, 0);
+                continue;
+            }
+            if (type >= 0 && type < counts.length) {
+                counts[type]++;
+            }
+            lastTime = log.time();
+        }
+        if (round >= 0) {
+            printRound(out, round, lastTime, counts);
+        }
+        out.printf("%d records, %d rounds%n", log.getRecordCount(), rounds);
+    }
+
+    private static void printRound(PrintStream out, int round, int lastTime, int[] counts) {
+        out.printf("%-6d %8d %8d %8d %8d %8d %8d %8d%n", round, lastTime, counts[BattleRecorder.SCAN],
+                counts[BattleRecorder.NAME], counts[BattleRecorder.FIRE], counts[BattleRecorder.BULLET_HIT],
+                counts[BattleRecorder.BULLET_MISSED], counts[BattleRecorder.HIT_BY_BULLET]);
+    }
+
+    private static String typeName(int type) {
+        return type >= 0 && type < TYPE_NAMES.length ? TYPE_NAMES[type] : "unknown" + type;
+    }
+}
@@ -0,0 +1,314 @@
+package gj.eh;
+
+import gj.eh.bench.StubPeer;
+import robocode.Bullet;
+import robocode.ScannedRobotEvent;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Replays {@link BattleRecorder} logs straight into ApexusBot's onScannedRobot
+ * (tracking, target switching and fire control) on a stub peer, without the
+ * engine. Each scan is fed with the pose and gun heat the bot had when it was
+ * recorded, and the gun turn and fire power it asks for are kept as its decision.
+ *
+ * <pre>
+ * java -cp out gj.eh.ReplayBenchmark [-i N] [-save FILE] [-check FILE] battle.rec...
+ * </pre>
+ *
+ * Reports decisions per second for each pass over the logs and the per-stage
+ * times of the last pass. {@code -save} writes the decisions as a reference,
+ * {@code -check} compares against one and exits 1 on any difference, so a
+ * change to the gun can be checked against real tournament traffic.
+ */
+public final class ReplayBenchmark {
+
+    private static final int DECISIONS_MAGIC = 0x41505844;
+    private static final int MISMATCHES_SHOWN = 10;
+
+    // One entry per scan in the logs
+    private int scans;
+    private ScannedRobotEvent[] events = new ScannedRobotEvent[1024];
+    private int[] round = new int[1024];
+    private long[] time = new long[1024];
+    private double[][] pose = new double[1024][];
+    private double[] gunHeat = new double[1024];
+    private int[] others = new int[1024];
+    private final ArrayList<double[]> fields = new ArrayList<double[]>();
+
+    private final double[] gunTurn;
+    private final double[] firePower;
+
+    private ReplayBenchmark(String[] files) throws IOException {
+        for (String file : files) {
+            load(new RecordingReader(new File(file)));
+        }
+        gunTurn = new double[scans];
+        firePower = new double[scans];
+    }
+
+    /**
+     * A stub peer that remembers the aim the bot asked for.
+     */
+    private static final class ReplayPeer extends StubPeer {
+        double gunTurn;
+        double firePower;
+
+        @Override
+        public void setTurnGun(double radians) {
+            gunTurn = radians;
+        }
+
+        @Override
+        public Bullet setFire(double power) {
+            firePower = power;
+            return null;
+        }
+    }
+
+    /**
+     * Turns a log into prebuilt events, so replaying allocates nothing but the
+     * bots. Gun heat is not recorded; it is rebuilt from the round start value
+     * of 3 and the FIRE records, cooling 0.1 per tick.
+     */
+    private void load(RecordingReader log) {
+        double[] currentPose = new double[6];
+        double lastHeat = 3;
+        long lastHeatTime = 0;
+        int roundScansFrom = scans;
+        int enemies = 0;
+        String[] names = new String[256];
+        while (log.next()) {
+            switch (log.type()) {
+                case BattleRecorder.ROUND:
+                    setOthers(roundScansFrom, enemies);
+                    roundScansFrom = scans;
+                    enemies = 0;
+                    lastHeat = 3;
+                    lastHeatTime = 0;
+                    fields.add(new double[]{log.value(0), log.value(1)});
+                    break;
+                case BattleRecorder.NAME:
+                    names[log.slot()] = log.name();
+                    enemies++;
+                    break;
+                case BattleRecorder.POSE:
+                    currentPose = new double[6];
+                    for (int i = 0; i < 6; i++) {
+                        currentPose[i] = log.value(i);
+                    }
+                    break;
+                case BattleRecorder.FIRE:
+                    lastHeat = 1 + log.value(0) / 5;
+                    lastHeatTime = log.time();
+                    break;
+                case BattleRecorder.SCAN:
+                    if (fields.isEmpty()) {
+                        break;
+                    }
+                    grow();
+                    events[scans] = new ScannedRobotEvent(names[log.slot()], log.value(4), log.value(0),
+                            log.value(1), log.value(2), log.value(3), false);
+                    round[scans] = fields.size() - 1;
+                    time[scans] = log.time();
+                    pose[scans] = currentPose;
+                    double heat = lastHeat - 0.1 * (log.time() - lastHeatTime);
+                    gunHeat[scans] = heat < 1e-9 ? 0 : heat;
+                    scans++;
+                    break;
+                default:
+                    break;
+            }
+        }
+        setOthers(roundScansFrom, enemies);
+    }
+
+    private void setOthers(int from, int enemies) {
+        Arrays.fill(others, from, scans, Math.max(1, enemies));
+    }
+
+    private void grow() {
+        if (scans < events.length) {
+            return;
+        }
+        int capacity = events.length * 2;
+        events = Arrays.copyOf(events, capacity);
+        round = Arrays.copyOf(round, capacity);
+        time = Arrays.copyOf(time, capacity);
+        pose = Arrays.copyOf(pose, capacity);
+        gunHeat = Arrays.copyOf(gunHeat, capacity);
+        others = Arrays.copyOf(others, capacity);
+    }
+
+    /**
+     * One pass over every scan, a new bot per recorded round as in Robocode,
+     * with learned gun data carried between rounds as it would be. Returns the summed stage times of the pass.
+     */
+    private TickProfiler replay() {
+        TickProfiler stages = new TickProfiler();
+        //The learning guns keep what they saw across rounds; every pass starts them afresh
+        GuessFactorGun.clearStats();
+        KdTreeGun.clearTrees();
+        PatternGun.clearHistories();
+        VirtualGuns.clearScores();
+        WaveSurfer.clearStats();
+        ReplayPeer peer = new ReplayPeer();
+        ApexusBot bot = null;
+        int botRound = -1;
+        for (int i = 0; i < scans; i++) {
+            if (round[i] != botRound) {
+                if (bot != null) {
+                    stages.add(bot.profiler);
+                }
+                botRound = round[i];
+                bot = new ApexusBot();
+                bot.setPeer(peer);
+                bot.setRandomSeed(botRound);
+                peer.battleFieldWidth = fields.get(botRound)[0];
+                peer.battleFieldHeight = fields.get(botRound)[1];
+            }
+            double[] p = pose[i];
+            peer.time = time[i];
+            peer.x = p[0];
+            peer.y = p[1];
+            peer.heading = p[2];
+            peer.energy = p[4];
+            peer.gunHeading = p[5];
+            peer.gunHeat = gunHeat[i];
+            peer.others = others[i];
+            peer.gunTurn = Double.NaN;
+            peer.firePower = 0;
+            bot.onScannedRobot(events[i]);
+            gunTurn[i] = peer.gunTurn;
+            firePower[i] = peer.firePower;
+        }
+        if (bot != null) {
+            stages.add(bot.profiler);
+        }
+        return stages;
+    }
+
+    private void save(File file) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            out.writeInt(DECISIONS_MAGIC);
+            out.writeInt(scans);
+            for (int i = 0; i < scans; i++) {
+                out.writeDouble(gunTurn[i]);
+                out.writeDouble(firePower[i]);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Prints the first few differences from the reference and returns how many there were.
+     */
+    private int check(File file) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (in.readInt() != DECISIONS_MAGIC) {
+                throw new IOException(file + " is not a decisions file");
+            }
+            int count = in.readInt();
+            if (count != scans) {
+                System.out.printf("Reference has %d decisions, the logs have %d scans%n", count, scans);
+                return Math.abs(count - scans);
+            }
+            int mismatches = 0;
+            for (int i = 0; i < count; i++) {
+                double refTurn = in.readDouble();
+                double refPower = in.readDouble();
+                if (Double.doubleToLongBits(refTurn) != Double.doubleToLongBits(gunTurn[i])
+                        || Double.doubleToLongBits(refPower) != Double.doubleToLongBits(firePower[i])) {
+                    if (mismatches < MISMATCHES_SHOWN) {
+                        System.out.printf("round %d tick %d %s: gun turn %.6f -> %.6f, power %.2f -> %.2f%n",
+                                round[i], time[i], events[i].getName(), refTurn, gunTurn[i], refPower,
+                                firePower[i]);
+                    }
+                    mismatches++;
+                }
+            }
+            return mismatches;
+        } finally {
+            in.close();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int iterations = 10;
+        String saveFile = null;
+        String checkFile = null;
+        ArrayList<String> logs = new ArrayList<String>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-i")) {
+                iterations = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-save")) {
+                saveFile = args[++i];
+            } else if (args[i].equals("-check")) {
+                checkFile = args[++i];
+            } else {
+                logs.add(args[i]);
+            }
+        }
+        if (logs.isEmpty()) {
+            System.err.println("usage: ReplayBenchmark [-i N] [-save FILE] [-check FILE] battle.rec...");
+            System.exit(2);
+        }
+
+        ReplayBenchmark replay = new ReplayBenchmark(logs.toArray(new String[0]));
+        System.out.printf("%d scans in %d rounds from %d logs%n", replay.scans, replay.fields.size(), logs.size());
+        if (replay.scans == 0) {
+            return;
+        }
+
+        TickProfiler stages = null;
+        double best = 0;
+        for (int it = 1; it <= iterations; it++) {
+            long start = System.nanoTime();
+            stages = replay.replay();
+            long nanos = System.nanoTime() - start;
+            double rate = replay.scans * 1e9 / nanos;
+            best = Math.max(best, rate);
+            System.out.printf("Pass %2d: %8.2f ms, %10.0f decisions/s%n", it, nanos / 1e6, rate);
+        }
+        System.out.printf("Best: %.0f decisions/s%n%n", best);
+
+        System.out.printf("%-8s %8s %10s %10s %10s%n", "Stage", "Samples", "p50 ns", "p99 ns", "Max ns");
+        for (int stage = 0; stage < TickProfiler.STAGES; stage++) {
+            System.out.printf("%-8s %8d %10d %10d %10d%n", TickProfiler.getStageName(stage), stages.getSamples(stage),
+                    stages.percentile(stage, 50), stages.percentile(stage, 99), stages.getMax(stage));
+        }
+
+        int fired = 0;
+        for (int i = 0; i < replay.scans; i++) {
+            if (replay.firePower[i] > 0) {
+                fired++;
+            }
+        }
+        System.out.printf("%nShots decided: %d%n", fired);
+
+        if (saveFile != null) {
+            replay.save(new File(saveFile));
+            System.out.println("Decisions saved to " + saveFile);
+        }
+        if (checkFile != null) {
+            int mismatches = replay.check(new File(checkFile));
+            if (mismatches > 0) {
+                System.out.println("FAIL: " + mismatches + " decisions differ from " + checkFile);
+                System.exit(1);
+            }
+            System.out.println("All decisions match " + checkFile);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package gj.eh;
+
+import gj.eh.bench.Microbench;
+import gj.eh.bench.ScanFactory;
+import gj.eh.bench.StubPeer;
+import robocode.ScannedRobotEvent;
+
+import java.util.Random;
+
+/**
+ * ApexusBot's per-scan targeting methods against 1024 realistic enemy states.
+ */
+public final class TargetingBenchmark {
+
+    private static final double[] POWERS = {1.0, 1.5, 2.0, 3.0};
+
+    private TargetingBenchmark() {
+    }
+
+    public static void addTo(Microbench bench) {
+        StubPeer peer = new StubPeer();
+        final ApexusBot bot = new ApexusBot();
+        bot.setPeer(peer);
+
+        ScannedRobotEvent[][] scans = ScanFactory.scanPairs(42);
+        final int[] enemies = new int[ScanFactory.COUNT];
+        final double[] speeds = new double[ScanFactory.COUNT];
+        final long[] times = new long[ScanFactory.COUNT];
+        final double[] angles = new double[ScanFactory.COUNT];
+        Random random = new Random(7);
+        for (int i = 0; i < ScanFactory.COUNT; i++) {
+            enemies[i] = bot.enemies.intern("enemy" + i);
+            bot.enemies.update(enemies[i], scans[i][0], 0, bot);
+            bot.enemies.update(enemies[i], scans[i][1], 1, bot);
+            speeds[i] = 20 - 3 * POWERS[i & 3];
+            times[i] = (long) (bot.enemies.distance[enemies[i]] / speeds[i]);
+            angles[i] = (random.nextDouble() - 0.5) * 1440;
+        }
+        final int mask = ScanFactory.MASK;
+
+        bench.add("ApexusBot.predictEnemyPosition",
+                i -> bot.predictEnemyPosition(enemies[i & mask], POWERS[i & 3]));
+        bench.add("ApexusBot.interceptLinear",
+                i -> bot.interceptLinear(enemies[i & mask], speeds[i & mask]));
+        bench.add("ApexusBot.interceptCircular",
+                i -> bot.interceptCircular(enemies[i & mask], speeds[i & mask]));
+        bench.add("ApexusBot.aimGuessFactor",
+                i -> bot.aimGuessFactor(enemies[i & mask], speeds[i & mask]));
+        bench.add("ApexusBot.aimKdTree",
+                i -> bot.aimKdTree(enemies[i & mask], speeds[i & mask]));
+        bench.add("ApexusBot.aimPattern",
+                i -> bot.aimPattern(enemies[i & mask], speeds[i & mask]));
+        bench.add("ApexusBot.predictLinearWithLead",
+                i -> bot.predictLinearWithLead(enemies[i & mask], speeds[i & mask], times[i & mask]));
+        bench.add("ApexusBot.averageTurnRate",
+                i -> bot.averageTurnRate(enemies[i & mask]));
+        final MovePredictor predictor = new MovePredictor();
+        bench.add("MovePredictor.step[20 ticks]", i -> {
+            predictor.reset(bot);
+            predictor.command(Math.toRadians(angles[i & mask] / 8), speeds[i & mask] * 10 - 100);
+            for (int t = 0; t < 20; t++) {
+                if (!predictor.step()) {
+                    break;
+                }
+            }
+            return predictor.x;
+        });
+        final EnemyPredictor enemyPredictor = new EnemyPredictor();
+        bench.add("EnemyPredictor.intercept", i -> {
+            int enemy = enemies[i & mask];
+            enemyPredictor.reset(bot.enemies.x[enemy], bot.enemies.y[enemy], Math.toRadians(bot.enemies.heading[enemy]),
+                    bot.enemies.velocity[enemy], Math.toRadians(angles[i & mask] / 144), 800, 600);
+            return enemyPredictor.intercept(bot.getX(), bot.getY(), speeds[i & mask], 100);
+        });
+        // Two enemy waves closing in from either side
+        final Waves waves = new Waves();
+        final WallSmoothing wallSmoothing = new WallSmoothing();
+        wallSmoothing.setField(800, 600);
+        final WaveSurfer surfer = new WaveSurfer(wallSmoothing);
+        surfer.attach(0, "shooter");
+        bench.add("WaveSurfer.surf[2 waves]", i -> {
+            waves.count = 0;
+            long now = 100;
+            waves.launch(Waves.THEIRS, 0, now - 10, bot.getX() + 450, bot.getY(), 14, -Math.PI / 2, 1);
+            waves.launch(Waves.THEIRS, 0, now - 2, bot.getX() - 300, bot.getY() + 200, 17, 2.2, -1);
+            return surfer.surf(bot, waves, now) ? 1 : 0;
+        });
+        // Random spots within 100 pixels of a wall, heading anywhere
+        final double[] nearWallX = new double[mask + 1];
+        final double[] nearWallY = new double[mask + 1];
+        for (int i = 0; i <= mask; i++) {
+            boolean side = random.nextBoolean();
+            double along = 18 + random.nextDouble() * (side ? 564 : 764);
+            double out = 18 + random.nextDouble() * 82;
+            nearWallX[i] = side ? (random.nextBoolean() ? out : 800 - out) : along;
+            nearWallY[i] = side ? along : (random.nextBoolean() ? out : 600 - out);
+        }
+        bench.add("WallSmoothing.smooth[near walls]", i -> wallSmoothing.smooth(nearWallX[i & mask],
+                nearWallY[i & mask], Math.toRadians(angles[i & mask]), (i & 1) == 0 ? 1 : -1));
+        // The enemies of a 30-robot melee
+        final EnemyRegistry melee = new EnemyRegistry();
+        for (int i = 0; i < 29; i++) {
+            melee.update(melee.intern("enemy" + i), scans[i][0], 0, bot);
+        }
+        final MinimumRiskMovement minimumRisk = new MinimumRiskMovement();
+        bench.add("MinimumRiskMovement.choose[29 enemies]", i -> {
+            minimumRisk.choose(melee, 400, 300, i, 800, 600);
+            return minimumRisk.destinationX;
+        });
+        final AntiGravity antiGravity = new AntiGravity();
+        antiGravity.setField(800, 600);
+        bench.add("AntiGravity.push[29 enemies]", i -> {
+            antiGravity.push(melee, nearWallX[i & mask], nearWallY[i & mask]);
+            return antiGravity.forceX;
+        });
+        // A full tree of distinct random points, and as many again to keep adding
+        final KdTreeGun.Tree tree = new KdTreeGun.Tree();
+        final double[] points = new double[2 * KdTreeGun.CAPACITY * KdTreeGun.DIMS];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = random.nextDouble();
+        }
+        for (int i = 0; i < KdTreeGun.CAPACITY; i++) {
+            tree.add(points, i * KdTreeGun.DIMS, random.nextDouble() * 2 - 1);
+        }
+        final double[][] queries = new double[mask + 1][KdTreeGun.DIMS];
+        for (double[] query : queries) {
+            for (int d = 0; d < KdTreeGun.DIMS; d++) {
+                query[d] = random.nextDouble();
+            }
+        }
+        bench.add("KdTreeGun.Tree.search[full]",
+                i -> tree.search(queries[i & mask]) + tree.resultDistance[0]);
+        bench.add("KdTreeGun.Tree.add[full]", i -> {
+            tree.add(points, (i % (2 * KdTreeGun.CAPACITY)) * KdTreeGun.DIMS, 0);
+            return tree.size();
+        });
+        // Half a history of an enemy weaving between a few speeds and turns
+        final PatternGun.History history = new PatternGun.History();
+        final int[] symbols = new int[mask + 1];
+        for (int i = 0; i < symbols.length; i++) {
+            symbols[i] = PatternGun.symbol(random.nextInt(3) * 4 - 4, random.nextInt(3) * 5 - 5);
+        }
+        for (int i = 0; i < PatternGun.HISTORY / 2; i++) {
+            history.add(symbols[i & mask]);
+        }
+        bench.add("PatternGun.History.add", i -> {
+            history.add(symbols[i & mask]);
+            return history.length;
+        });
+        bench.add("PatternGun.History.match",
+                i -> history.match());
+        bench.add("ApexusBot.normalizeBearing",
+                i -> bot.normalizeBearing(angles[i & mask]));
+    }
+
+    public static void main(String[] args) {
+        Microbench bench = new Microbench();
+        bench.configure(args);
+        addTo(bench);
+        bench.run(System.out);
+    }
+}
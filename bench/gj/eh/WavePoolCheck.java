@@ -0,0 +1,101 @@
+package gj.eh;
+
+import gj.eh.bench.StubPeer;
+import robocode.ScannedRobotEvent;
+
+/**
+ * Fails if the guns' firing context lands on the wrong wave once the wave
+ * pool is full. A 1v1 on a large field, against an enemy far away that fires
+ * on every scan, keeps more waves in flight than {@link Waves#CAPACITY}, so
+ * every launch evicts one. After each scan, the wave just launched at the
+ * enemy must be ours and carry the aim, and no enemy wave may carry one.
+ *
+ * <pre>
+ * java -cp out gj.eh.WavePoolCheck [-scans N]
+ * </pre>
+ *
+ * Exits 1 on the first mismatch, so it can gate a build.
+ */
+public final class WavePoolCheck {
+
+    private static final double FIELD = 5000;
+    private static final double DISTANCE = 2400;
+
+    private WavePoolCheck() {
+    }
+
+    public static void main(String[] args) {
+        int scans = 2000;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-scans")) {
+                scans = Integer.parseInt(args[++i]);
+            } else {
+                System.err.println("Usage: WavePoolCheck [-scans N]");
+                System.exit(2);
+            }
+        }
+
+        StubPeer peer = new StubPeer();
+        peer.battleFieldWidth = FIELD;
+        peer.battleFieldHeight = FIELD;
+        peer.x = FIELD / 2;
+        peer.y = FIELD / 2;
+        peer.others = 1;
+        ApexusBot bot = new ApexusBot();
+        bot.setPeer(peer);
+        Waves waves = bot.waves;
+
+        int evicting = 0;
+        for (int i = 0; i < scans; i++) {
+            peer.time++;
+            peer.gunHeat = (i & 1) == 0 ? 0 : 0.1;
+            boolean full = waves.count == Waves.CAPACITY;
+            bot.onScannedRobot(scan(i));
+            bot.tick();
+            if (full) {
+                evicting++;
+            }
+            String error = check(waves, peer.time);
+            if (error != null) {
+                System.out.println("FAIL at scan " + i + (full ? ", pool full: " : ": ") + error);
+                System.exit(1);
+            }
+        }
+
+        System.out.printf("%d scans, %d into a full pool of %d waves%n", scans, evicting, Waves.CAPACITY);
+        if (evicting == 0) {
+            System.out.println("FAIL: the pool never filled, nothing was checked");
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    //Null if this tick's aim is on our wave launched this tick and on no enemy wave
+    private static String check(Waves waves, long now) {
+        int launched = 0;
+        for (int i = 0; i < waves.count; i++) {
+            if (waves.owner[i] == Waves.THEIRS && waves.aimed[i]) {
+                return "enemy wave " + i + " from tick " + waves.time[i] + " carries our aim";
+            }
+            if (waves.owner[i] == Waves.OURS && waves.time[i] == now) {
+                if (!waves.aimed[i]) {
+                    return "our wave " + i + " from this scan has no aim";
+                }
+                launched++;
+            }
+        }
+        return launched == 1 ? null : launched + " of our waves from this scan, not 1";
+    }
+
+    /**
+     * An enemy circling us far off, losing half a point of energy, a shot, on
+     * every scan, and back to full every 150 scans.
+     */
+    private static ScannedRobotEvent scan(int i) {
+        double energy = 100 - 0.5 * (i % 150);
+        double bearing = Math.toRadians(i * 0.2);
+        double heading = Math.toRadians(i * 0.2 + 90);
+        double velocity = 8 * Math.sin(i * 0.03);
+        return new ScannedRobotEvent("enemy", energy, bearing, DISTANCE, heading, velocity, false);
+    }
+}
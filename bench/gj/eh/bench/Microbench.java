@@ -0,0 +1,121 @@
+package gj.eh.bench;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+
+/**
+ * Minimal JMH-style harness: timed warmup and measurement iterations per
+ * benchmark, average time per operation with a 99.9% error bound.
+ *
+ * Every benchmark goes through the same {@link Op#run(int)} call site, so each
+ * score includes a few ns of interface dispatch; the {@code baseline} entry
+ * measures that overhead so it can be subtracted when comparing tiny methods.
+ */
+public final class Microbench {
+
+    /**
+     * One benchmarked operation. {@code i} increases every call and should be
+     * used to pick the input so the JIT cannot hoist the work out of the loop.
+     */
+    public interface Op {
+        double run(int i);
+    }
+
+    private static final int BATCH = 1024;
+
+    private final ArrayList<String> names = new ArrayList<String>();
+    private final ArrayList<Op> ops = new ArrayList<Op>();
+    private int warmupIterations = 5;
+    private int measurementIterations = 10;
+    private long iterationNanos = 200000000L;
+    private String filter;
+
+    /** Keeps results observable so the JIT cannot discard the work. */
+    private volatile double sink;
+
+    public Microbench() {
+        add("baseline", i -> i);
+    }
+
+    public void add(String name, Op op) {
+        names.add(name);
+        ops.add(op);
+    }
+
+    /**
+     * Parses {@code -wi N -i N -r MILLIS} and an optional substring filter on benchmark names.
+     */
+    public void configure(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-wi")) {
+                warmupIterations = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-i")) {
+                measurementIterations = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-r")) {
+                iterationNanos = Long.parseLong(args[++i]) * 1000000L;
+            } else {
+                filter = args[i];
+            }
+        }
+    }
+
+    public void run(PrintStream out) {
+        out.printf("%-48s %5s %5s %12s %10s  %s%n", "Benchmark", "Mode", "Cnt", "Score", "Error", "Units");
+        for (int b = 0; b < ops.size(); b++) {
+            String name = names.get(b);
+            if (filter != null && !name.contains(filter)) {
+                continue;
+            }
+            Op op = ops.get(b);
+            for (int w = 0; w < warmupIterations; w++) {
+                iteration(op);
+            }
+            double[] scores = new double[measurementIterations];
+            for (int m = 0; m < measurementIterations; m++) {
+                scores[m] = iteration(op);
+            }
+            out.printf("%-48s %5s %5d %12.3f %10.3f  %s%n", name, "avgt", scores.length,
+                    mean(scores), error(scores), "ns/op");
+        }
+    }
+
+    private double iteration(Op op) {
+        double acc = 0;
+        long ops = 0;
+        int i = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (int k = 0; k < BATCH; k++) {
+                acc += op.run(i++);
+            }
+            ops += BATCH;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < iterationNanos);
+        sink = acc;
+        return (double) elapsed / ops;
+    }
+
+    private static double mean(double[] values) {
+        double sum = 0;
+        for (double v : values) {
+            sum += v;
+        }
+        return sum / values.length;
+    }
+
+    /**
+     * Half-width of a 99.9% confidence interval, normal approximation.
+     */
+    private static double error(double[] values) {
+        if (values.length < 2) {
+            return Double.NaN;
+        }
+        double mean = mean(values);
+        double sq = 0;
+        for (double v : values) {
+            sq += (v - mean) * (v - mean);
+        }
+        return 3.29 * Math.sqrt(sq / (values.length - 1)) / Math.sqrt(values.length);
+    }
+}
@@ -0,0 +1,25 @@
+package gj.eh.bench;
+
+import MyBots.ApexBenchmark;
+import gj.eh.TargetingBenchmark;
+
+/**
+ * Runs every targeting benchmark.
+ *
+ * <pre>
+ * java -cp out gj.eh.bench.RunBenchmarks [-wi N] [-i N] [-r MILLIS] [nameFilter]
+ * </pre>
+ */
+public final class RunBenchmarks {
+
+    private RunBenchmarks() {
+    }
+
+    public static void main(String[] args) {
+        Microbench bench = new Microbench();
+        bench.configure(args);
+        TargetingBenchmark.addTo(bench);
+        ApexBenchmark.addTo(bench);
+        bench.run(System.out);
+    }
+}
@@ -0,0 +1,61 @@
+package gj.eh.bench;
+
+import robocode.ScannedRobotEvent;
+
+import java.util.Random;
+
+/**
+ * Builds realistic scan inputs for the targeting benchmarks: 1v1 distances,
+ * full-speed and stop-and-go velocities, and headings from all directions.
+ */
+public final class ScanFactory {
+
+    public static final int COUNT = 1024;
+    public static final int MASK = COUNT - 1;
+
+    private ScanFactory() {
+    }
+
+    /**
+     * {@link #COUNT} pairs of consecutive scans, {@code [i][0]} one tick before {@code [i][1]}.
+     */
+    public static ScannedRobotEvent[][] scanPairs(long seed) {
+        Random random = new Random(seed);
+        ScannedRobotEvent[][] pairs = new ScannedRobotEvent[COUNT][2];
+        for (int i = 0; i < COUNT; i++) {
+            double bearing = (random.nextDouble() - 0.5) * 2 * Math.PI;
+            double distance = 100 + random.nextDouble() * 600;
+            double heading = random.nextDouble() * 2 * Math.PI;
+            double velocity = random.nextBoolean() ? 8 * (random.nextBoolean() ? 1 : -1) : (random.nextDouble() - 0.5) * 16;
+            double energy = 10 + random.nextDouble() * 90;
+            double turn = Math.toRadians((random.nextDouble() - 0.5) * 20);
+            pairs[i][0] = new ScannedRobotEvent("enemy", energy, bearing, distance, heading, velocity, false);
+            pairs[i][1] = new ScannedRobotEvent("enemy", energy, bearing + 0.01, distance + velocity * 0.5,
+                    heading + turn, velocity, false);
+        }
+        return pairs;
+    }
+
+    /**
+     * A robot circling at full speed, {@code count} consecutive scans.
+     */
+    public static ScannedRobotEvent[] spinbot(int count) {
+        ScannedRobotEvent[] scans = new ScannedRobotEvent[count];
+        for (int i = 0; i < count; i++) {
+            scans[i] = new ScannedRobotEvent("spinner", 90, Math.toRadians(30 + i), 250, Math.toRadians(i * 10), 8, false);
+        }
+        return scans;
+    }
+
+    /**
+     * A robot creeping along the bottom wall, scanned from the middle of an 800x600 field.
+     */
+    public static ScannedRobotEvent[] wallHugger(int count) {
+        ScannedRobotEvent[] scans = new ScannedRobotEvent[count];
+        for (int i = 0; i < count; i++) {
+            // From (400, 300): bearing ~ south-west, distance to reach y ~ 40
+            scans[i] = new ScannedRobotEvent("walls", 90, Math.toRadians(200 + i), 280, Math.toRadians(90), 4, false);
+        }
+        return scans;
+    }
+}
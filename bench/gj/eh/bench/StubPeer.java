@@ -0,0 +1,188 @@
+package gj.eh.bench;
+
+import robocode.Bullet;
+import robocode.robotinterfaces.peer.IAdvancedRobotPeer;
+
+import java.awt.Color;
+import java.io.File;
+
+/**
+ * A robot peer frozen at a fixed pose. Movement and gun commands, blocking or
+ * queued, complete immediately without changing anything, so bot code can be called directly
+ * from a benchmark or replay without running the engine.
+ */
+public class StubPeer implements IAdvancedRobotPeer {
+
+    public double x = 400;
+    public double y = 300;
+    public double heading;
+    public double gunHeading;
+    public double radarHeading;
+    public double energy = 100;
+    public double gunHeat;
+    public double battleFieldWidth = 800;
+    public double battleFieldHeight = 600;
+    public long time;
+    public int others = 1;
+    public File dataDirectory = new File(System.getProperty("java.io.tmpdir"));
+
+    public String getName() {
+        return "stub";
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public double getEnergy() {
+        return energy;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getVelocity() {
+        return 0;
+    }
+
+    public double getBodyHeading() {
+        return heading;
+    }
+
+    public double getGunHeading() {
+        return gunHeading;
+    }
+
+    public double getRadarHeading() {
+        return radarHeading;
+    }
+
+    public double getGunHeat() {
+        return gunHeat;
+    }
+
+    public double getGunCoolingRate() {
+        return 0.1;
+    }
+
+    public double getBattleFieldWidth() {
+        return battleFieldWidth;
+    }
+
+    public double getBattleFieldHeight() {
+        return battleFieldHeight;
+    }
+
+    public int getOthers() {
+        return others;
+    }
+
+    public int getNumRounds() {
+        return 1;
+    }
+
+    public int getRoundNum() {
+        return 0;
+    }
+
+    public double getDistanceRemaining() {
+        return 0;
+    }
+
+    public double getBodyTurnRemaining() {
+        return 0;
+    }
+
+    public double getGunTurnRemaining() {
+        return 0;
+    }
+
+    public double getRadarTurnRemaining() {
+        return 0;
+    }
+
+    public void execute() {
+    }
+
+    public void move(double distance) {
+    }
+
+    public void turnBody(double radians) {
+    }
+
+    public void turnGun(double radians) {
+    }
+
+    public void turnRadar(double radians) {
+    }
+
+    public Bullet fire(double power) {
+        return null;
+    }
+
+    public Bullet setFire(double power) {
+        return null;
+    }
+
+    public void setMove(double distance) {
+    }
+
+    public void setTurnBody(double radians) {
+    }
+
+    public void setTurnGun(double radians) {
+    }
+
+    public void setTurnRadar(double radians) {
+    }
+
+    public void setMaxVelocity(double newMaxVelocity) {
+    }
+
+    public void setMaxTurnRate(double newMaxTurnRate) {
+    }
+
+    public File getDataDirectory() {
+        return dataDirectory;
+    }
+
+    public File getDataFile(String filename) {
+        return new File(dataDirectory, filename);
+    }
+
+    public long getDataQuotaAvailable() {
+        return 200000;
+    }
+
+    public void setAdjustGunForBodyTurn(boolean adjust) {
+    }
+
+    public void setAdjustRadarForGunTurn(boolean adjust) {
+    }
+
+    public void setAdjustRadarForBodyTurn(boolean adjust) {
+    }
+
+    public void stop(boolean overwrite) {
+    }
+
+    public void setBodyColor(Color color) {
+    }
+
+    public void setGunColor(Color color) {
+    }
+
+    public void setRadarColor(Color color) {
+    }
+
+    public void setBulletColor(Color color) {
+    }
+
+    public void setScanColor(Color color) {
+    }
+}
@@ -3,6 +3,7 @@ package MyBots;
 import robocode.*;
 import java.awt.Color;
 import java.util.HashMap;
+import java.util.SplittableRandom;
 
 /**
  * ApexV2 - Intermediate bot designed to handle 90% of opponents
@@ -25,6 +26,7 @@ public class ApexV2 extends Robot {
     
     // Movement variables
     private int moveDirection = 1;
+    private SplittableRandom random = new SplittableRandom();
     private double lastEnemyEnergy = 100.0;
     
     // Targeting history for pattern matching (per enemy)
@@ -60,7 +62,7 @@ public class ApexV2 extends Robot {
             this.lastHeading = e.getHeading();
             
             // Calculate absolute position
-            double absoluteBearing = getHeadingRadians() + e.getBearingRadians();
+            double absoluteBearing = Math.toRadians(getHeading()) + e.getBearingRadians();
             this.x = getX() + Math.sin(absoluteBearing) * e.getDistance();
             this.y = getY() + Math.cos(absoluteBearing) * e.getDistance();
         }
@@ -102,7 +104,7 @@ public class ApexV2 extends Robot {
                 ahead(20);
             }
             
-            execute(); // Complete all actions for this tick
+            doNothing(); // Robot has no execute(); end this tick
         }
     }
     
@@ -325,7 +327,7 @@ public class ApexV2 extends Robot {
         }
         
         // Add small randomness
-        baseAngle += (Math.random() - 0.5) * 0.3;
+        baseAngle += (random.nextDouble() - 0.5) * 0.3;
         
         // Maintain optimal distance (150-350 pixels)
         double targetDistance = 250;
@@ -342,7 +344,7 @@ public class ApexV2 extends Robot {
         moveDistance = 30; // Variable distance for less predictability
         
         // Random direction changes
-        if (Math.random() < 0.08) {
+        if (random.nextDouble() < 0.08) {
             moveDirection *= -1;
         }
     }
@@ -372,6 +374,11 @@ public class ApexV2 extends Robot {
         moveDirection *= -1;
     }
     
+    /** Seeds the movement randomness; the headless simulator's -seed calls it each round. */
+    public void setRandomSeed(long seed) {
+        random = new SplittableRandom(seed);
+    }
+
     /**
      * FIXED: Handle hitting wall - more aggressive avoidance
      */
@@ -3,6 +3,7 @@ package MyBots;
 import robocode.*;
 import java.awt.Color;
 import java.util.HashMap;
+import java.util.SplittableRandom;
 
 /**
  * ApexV2Fixed - 100% Intermediate Robot class bot
@@ -21,6 +22,7 @@ public class ApexV2Fixed extends Robot {
     
     // Movement variables
     private int moveDirection = 1;
+    private SplittableRandom random = new SplittableRandom();
     private double lastEnemyEnergy = 100.0;
     
     // Targeting history for pattern matching
@@ -55,7 +57,7 @@ public class ApexV2Fixed extends Robot {
             this.lastHeading = e.getHeading();
             
             // Calculate absolute position
-            double absoluteBearing = getHeadingRadians() + e.getBearingRadians();
+            double absoluteBearing = Math.toRadians(getHeading()) + e.getBearingRadians();
             this.x = getX() + Math.sin(absoluteBearing) * e.getDistance();
             this.y = getY() + Math.cos(absoluteBearing) * e.getDistance();
         }
@@ -206,7 +208,7 @@ public class ApexV2Fixed extends Robot {
         }
         
         // Random direction changes for unpredictability
-        if (Math.random() < 0.08) {
+        if (random.nextDouble() < 0.08) {
             moveDirection *= -1;
         }
     }
@@ -325,6 +327,11 @@ public class ApexV2Fixed extends Robot {
         moveDirection *= -1;
     }
     
+    /** Seeds the movement randomness; the headless simulator's -seed calls it each round. */
+    public void setRandomSeed(long seed) {
+        random = new SplittableRandom(seed);
+    }
+
     /**
      * Handle hitting wall
      */
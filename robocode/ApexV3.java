@@ -3,6 +3,7 @@ package MyBots;
 import robocode.*;
 import java.awt.Color;
 import java.util.HashMap;
+import java.util.SplittableRandom;
 
 /**
  * ApexV3 - Fixed micro-movement and improved spinbot counter
@@ -22,6 +23,7 @@ public class ApexV3 extends Robot {
     
     // Movement control - PREVENT MICRO-MOVEMENTS
     private int moveDirection = 1;
+    private SplittableRandom random = new SplittableRandom();
     private double lastEnemyEnergy = 100.0;
     private long lastMoveTime = 0;
     private static final int MOVE_COOLDOWN = 5; // Only move every 5 ticks
@@ -60,7 +62,7 @@ public class ApexV3 extends Robot {
             this.lastHeading = e.getHeading();
             
             // Calculate absolute position
-            double absoluteBearing = getHeadingRadians() + e.getBearingRadians();
+            double absoluteBearing = Math.toRadians(getHeading()) + e.getBearingRadians();
             this.x = getX() + Math.sin(absoluteBearing) * e.getDistance();
             this.y = getY() + Math.cos(absoluteBearing) * e.getDistance();
         }
@@ -223,7 +225,7 @@ public class ApexV3 extends Robot {
         }
         
         // Add randomness to avoid patterns
-        moveAngle += (Math.random() - 0.5) * 40; // More randomness
+        moveAngle += (random.nextDouble() - 0.5) * 40; // More randomness
         
         // Execute turn and movement
         double turn = normalizeBearing(moveAngle - getHeading());
@@ -238,7 +240,7 @@ public class ApexV3 extends Robot {
         }
         
         // Random direction changes (less frequent)
-        if (Math.random() < 0.15) {
+        if (random.nextDouble() < 0.15) {
             moveDirection *= -1;
         }
     }
@@ -374,6 +376,11 @@ public class ApexV3 extends Robot {
         ahead(100);
     }
     
+    /** Seeds the movement randomness; the headless simulator's -seed calls it each round. */
+    public void setRandomSeed(long seed) {
+        random = new SplittableRandom(seed);
+    }
+
     /**
      * Handle wall collision
      */
@@ -3,6 +3,7 @@ package MyBots;
 import robocode.*;
 import java.awt.Color;
 import java.util.HashMap;
+import java.util.SplittableRandom;
 
 /**
  * ApexV4 - Complete fire control overhaul
@@ -23,6 +24,7 @@ public class ApexV4 extends Robot {
     
     // Movement control
     private int moveDirection = 1;
+    private SplittableRandom random = new SplittableRandom();
     private double lastEnemyEnergy = 100.0;
     private long lastMoveTime = 0;
     private static final int MOVE_COOLDOWN = 5;
@@ -267,9 +269,9 @@ public class ApexV4 extends Robot {
         }
         
         if (!enemyIsWallHugger) {
-            moveAngle += (Math.random() - 0.5) * 40;
+            moveAngle += (random.nextDouble() - 0.5) * 40;
         } else {
-            moveAngle += (Math.random() - 0.5) * 20;
+            moveAngle += (random.nextDouble() - 0.5) * 20;
         }
         
         double turn = normalizeBearing(moveAngle - getHeading());
@@ -282,7 +284,7 @@ public class ApexV4 extends Robot {
             ahead(moveDistance);
         }
         
-        if (Math.random() < 0.15) {
+        if (random.nextDouble() < 0.15) {
             moveDirection *= -1;
         }
     }
@@ -290,7 +292,7 @@ public class ApexV4 extends Robot {
     /**
      * Enhanced prediction
      */
-    private double predictEnemyPosition(EnemyData enemy, double bulletPower) {
+    double predictEnemyPosition(EnemyData enemy, double bulletPower) {
         double bulletSpeed = 20 - 3 * bulletPower;
         long time = (long)(enemy.distance / bulletSpeed);
         
@@ -323,7 +325,7 @@ public class ApexV4 extends Robot {
     /**
      * Detect spinbot
      */
-    private boolean detectSpinbot() {
+    boolean detectSpinbot() {
         if (historyIndex < 5) return false;
         
         double avgVelocity = 0;
@@ -349,7 +351,7 @@ public class ApexV4 extends Robot {
     /**
      * Detect wall hugger
      */
-    private boolean detectWallHugger() {
+    boolean detectWallHugger() {
         if (historyIndex < 5) return false;
         
         int nearWallCount = 0;
@@ -376,7 +378,7 @@ public class ApexV4 extends Robot {
     /**
      * Linear prediction
      */
-    private double predictLinear(EnemyData enemy, double bulletSpeed, long time) {
+    double predictLinear(EnemyData enemy, double bulletSpeed, long time) {
         double predictedX = enemy.x + Math.sin(Math.toRadians(enemy.heading)) * enemy.velocity * time;
         double predictedY = enemy.y + Math.cos(Math.toRadians(enemy.heading)) * enemy.velocity * time;
         return Math.atan2(predictedX - getX(), predictedY - getY());
@@ -385,7 +387,7 @@ public class ApexV4 extends Robot {
     /**
      * Linear prediction with lead for wall huggers
      */
-    private double predictLinearWithLead(EnemyData enemy, double bulletSpeed, long time) {
+    double predictLinearWithLead(EnemyData enemy, double bulletSpeed, long time) {
         // Extra lead for wall huggers - they move predictably
         long adjustedTime = (long)(time * 1.3); // Increased from 1.2 to 1.3
         double predictedX = enemy.x + Math.sin(Math.toRadians(enemy.heading)) * enemy.velocity * adjustedTime;
@@ -396,7 +398,7 @@ public class ApexV4 extends Robot {
     /**
      * Circular prediction
      */
-    private double predictCircular(EnemyData enemy, double bulletSpeed, long time) {
+    double predictCircular(EnemyData enemy, double bulletSpeed, long time) {
         double turnRate = 0;
         int samples = 0;
         
@@ -448,6 +450,11 @@ public class ApexV4 extends Robot {
         ahead(100);
     }
     
+    /** Seeds the movement randomness; the headless simulator's -seed calls it each round. */
+    public void setRandomSeed(long seed) {
+        random = new SplittableRandom(seed);
+    }
+
     /**
      * Handle wall collision
      */
@@ -495,7 +502,7 @@ public class ApexV4 extends Robot {
     /**
      * Normalize bearing (degrees)
      */
-    private double normalizeBearing(double angle) {
+    double normalizeBearing(double angle) {
         while (angle > 180) angle -= 360;
         while (angle < -180) angle += 360;
         return angle;
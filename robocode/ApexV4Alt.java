@@ -3,9 +3,10 @@ package MyBots;
 import robocode.*;
 import java.awt.Color;
 import java.util.HashMap;
+import java.util.SplittableRandom;
 
 /**
- * ApexV4 - Complete fire control overhaul
+ * ApexV4Alt - ApexV4 with a degree-based radar lock that overshoots by 5 degrees
  * 
  * NEW FIRE CONTROL SYSTEM:
  * - Infinity lock radar (IRST for intermediate bots)
@@ -14,7 +15,7 @@ import java.util.HashMap;
  * - Proper gun direction calculation
  * - High DPS optimization
  */
-public class ApexV4 extends Robot {
+public class ApexV4Alt extends Robot {
     
     // Enemy tracking
     private HashMap<String, EnemyData> enemies = new HashMap<>();
@@ -23,6 +24,7 @@ public class ApexV4 extends Robot {
     
     // Movement control
     private int moveDirection = 1;
+    private SplittableRandom random = new SplittableRandom();
     private double lastEnemyEnergy = 100.0;
     private long lastMoveTime = 0;
     private static final int MOVE_COOLDOWN = 5;
@@ -111,7 +113,6 @@ public class ApexV4 extends Robot {
                 turnRadarRight(radarTurn);
             }
         }
-        }
     }
     
     /**
@@ -268,9 +269,9 @@ public class ApexV4 extends Robot {
         }
         
         if (!enemyIsWallHugger) {
-            moveAngle += (Math.random() - 0.5) * 40;
+            moveAngle += (random.nextDouble() - 0.5) * 40;
         } else {
-            moveAngle += (Math.random() - 0.5) * 20;
+            moveAngle += (random.nextDouble() - 0.5) * 20;
         }
         
         double turn = normalizeBearing(moveAngle - getHeading());
@@ -283,7 +284,7 @@ public class ApexV4 extends Robot {
             ahead(moveDistance);
         }
         
-        if (Math.random() < 0.15) {
+        if (random.nextDouble() < 0.15) {
             moveDirection *= -1;
         }
     }
@@ -449,6 +450,11 @@ public class ApexV4 extends Robot {
         ahead(100);
     }
     
+    /** Seeds the movement randomness; the headless simulator's -seed calls it each round. */
+    public void setRandomSeed(long seed) {
+        random = new SplittableRandom(seed);
+    }
+
     /**
      * Handle wall collision
      */
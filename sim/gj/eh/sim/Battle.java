@@ -0,0 +1,738 @@
+package gj.eh.sim;
+
+import robocode.Bullet;
+import robocode.BulletHitBulletEvent;
+import robocode.BulletHitEvent;
+import robocode.BulletMissedEvent;
+import robocode.DeathEvent;
+import robocode.HitByBulletEvent;
+import robocode.HitRobotEvent;
+import robocode.HitWallEvent;
+import robocode.Robot;
+import robocode.RobotDeathEvent;
+import robocode.RoundEndedEvent;
+import robocode.Rules;
+import robocode.ScannedRobotEvent;
+import robocode.WinEvent;
+import robocode.util.Utils;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * A headless Robocode battle: no rendering, no sound, no security manager, just
+ * the turn loop and the game physics. Robots run on their own threads but only
+ * one thread runs at any time, so a battle is deterministic for a given seed as
+ * long as the robots themselves are.
+ *
+ * The threads are what bound the speed: a robot's run() blocks in execute()
+ * until its next turn, so every turn of every robot is two thread hand-offs.
+ * On one core that is around 14 us per robot per turn, even for robots that
+ * do nothing, and a 1v1 round of a few hundred turns takes tens of
+ * milliseconds.
+ */
+public final class Battle {
+
+    private static final double GUN_COOLING_RATE = 0.1;
+    private static final int INACTIVITY_TIME = 450;
+    private static final double INACTIVITY_ZAP = 0.1;
+
+    final double width;
+    final double height;
+    final int numRounds;
+    final double gunCoolingRate = GUN_COOLING_RATE;
+
+    final PrintStream robotOut;
+    boolean verbose;
+    boolean virtualThreads;
+    long turnTimeoutNanos = 10000000000L;
+    long cpuConstantNanos;
+
+    long time;
+    int roundNum;
+    int aliveCount;
+
+    private final Class<? extends Robot>[] robotClasses;
+    private final Method[] seedMethods;
+    private final long seed;
+    private final RobotPeer[] peers;
+    private final Random random;
+    private final ArrayList<SimBullet> bullets = new ArrayList<SimBullet>();
+    private final double[][] bulletDamageDealt;
+    private final double[][] ramDamageDealt;
+    private final ArrayList<RobotPeer> deadThisTurn = new ArrayList<RobotPeer>();
+    private int maxTurns = 30000;
+    private int nextBulletId;
+    private long lastDamageTime;
+    private long totalTurns;
+    private PrintStream log = System.err;
+
+    /**
+     * @param robotClassNames fully qualified robot classes, one entry per robot in the battle
+     * @param numRounds       rounds to play
+     * @param width           battlefield width
+     * @param height          battlefield height
+     * @param seed            seed for the start positions and the robots' random seeds
+     */
+    public Battle(String[] robotClassNames, int numRounds, double width, double height, long seed) {
+        this(robotClassNames, numRounds, width, height, seed, new File(".data"));
+    }
+
+    /**
+     * @param dataRoot parent of the robots' data directories, one per robot class as in Robocode
+     */
+    public Battle(String[] robotClassNames, int numRounds, double width, double height, long seed,
+                  File dataRoot) {
+        if (robotClassNames.length < 2) {
+            throw new IllegalArgumentException("A battle needs at least two robots");
+        }
+        this.width = width;
+        this.height = height;
+        this.numRounds = numRounds;
+        this.random = new Random(seed);
+        this.seed = seed;
+        this.robotOut = new PrintStream(OutputStream.nullOutputStream());
+        this.robotClasses = loadRobotClasses(robotClassNames);
+        this.seedMethods = findSeedMethods(robotClasses);
+        this.peers = new RobotPeer[robotClassNames.length];
+        String[] names = robotNames(robotClassNames);
+        for (int i = 0; i < peers.length; i++) {
+            peers[i] = new RobotPeer(this, i, names[i], new File(dataRoot, robotClassNames[i]));
+        }
+        this.bulletDamageDealt = new double[peers.length][peers.length];
+        this.ramDamageDealt = new double[peers.length][peers.length];
+    }
+
+    /**
+     * Turns after which a round is stopped without a winner.
+     */
+    public void setMaxTurns(int maxTurns) {
+        this.maxTurns = maxTurns;
+    }
+
+    /**
+     * Turn time after which a robot is sent a SkippedTurnEvent; 0, the default,
+     * turns the check off. The engine never actually skips the turn, so battles
+     * stay deterministic.
+     */
+    public void setCpuConstantNanos(long cpuConstantNanos) {
+        this.cpuConstantNanos = cpuConstantNanos;
+    }
+
+    /**
+     * Prints robot errors with their stack traces.
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    /**
+     * Runs the robots on virtual threads, so a battle costs no OS threads while
+     * it waits on its robots. Falls back to platform threads, with a warning,
+     * before Java 21.
+     */
+    public void setVirtualThreads(boolean virtualThreads) {
+        if (virtualThreads && !RobotThreads.isVirtualSupported()) {
+            log("Virtual threads need Java 21 or later, using platform threads");
+            virtualThreads = false;
+        }
+        this.virtualThreads = virtualThreads;
+    }
+
+    public static boolean isVirtualThreadSupported() {
+        return RobotThreads.isVirtualSupported();
+    }
+
+    /**
+     * Where engine warnings are written; null silences them.
+     */
+    public void setLog(PrintStream log) {
+        this.log = log;
+    }
+
+    public long getTotalTurns() {
+        return totalTurns;
+    }
+
+    /**
+     * Plays all rounds and returns the results in the order the robots were given.
+     */
+    public RobotResults[] run() {
+        for (roundNum = 0; roundNum < numRounds; roundNum++) {
+            runRound();
+        }
+        RobotResults[] results = new RobotResults[peers.length];
+        for (int i = 0; i < peers.length; i++) {
+            results[i] = peers[i].results;
+        }
+        return results;
+    }
+
+    int nextBulletId() {
+        return ++nextBulletId;
+    }
+
+    void log(String message) {
+        if (log != null) {
+            log.println(message);
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Round loop
+    // ---------------------------------------------------------------------
+
+    private void runRound() {
+        time = 0;
+        lastDamageTime = 0;
+        bullets.clear();
+        for (double[] row : bulletDamageDealt) {
+            Arrays.fill(row, 0);
+        }
+        for (double[] row : ramDamageDealt) {
+            Arrays.fill(row, 0);
+        }
+        placeRobots();
+        aliveCount = peers.length;
+
+        for (RobotPeer peer : peers) {
+            peer.takeTurn();
+        }
+        while (true) {
+            time++;
+            updateBullets();
+            updateRobots();
+            scanRobots();
+            handleInactivity();
+            handleDeaths();
+            if (aliveCount <= 1 || time >= maxTurns) {
+                break;
+            }
+            for (RobotPeer peer : peers) {
+                if (peer.alive) {
+                    peer.takeTurn();
+                }
+            }
+        }
+        long roundStartTurns = totalTurns;
+        totalTurns += time;
+        finishRound(roundStartTurns);
+    }
+
+    private void placeRobots() {
+        for (int i = 0; i < peers.length; i++) {
+            RobotPeer peer = peers[i];
+            double x;
+            double y;
+            int attempts = 0;
+            do {
+                x = RobotPeer.HALF_SIZE * 2 + random.nextDouble() * (width - RobotPeer.HALF_SIZE * 4);
+                y = RobotPeer.HALF_SIZE * 2 + random.nextDouble() * (height - RobotPeer.HALF_SIZE * 4);
+            } while (overlapsPlaced(x, y, i) && ++attempts < 1000);
+            double heading = random.nextDouble() * 2 * Math.PI;
+            Robot robot = newRobot(robotClasses[i]);
+            seedRobot(robot, i);
+            peer.reset(robot, x, y, heading);
+        }
+    }
+
+    /**
+     * Robots with a {@code setRandomSeed(long)} method get a seed that depends
+     * only on the battle seed, the round and their place in the battle, so a
+     * battle replays exactly and battles in parallel share no generator.
+     */
+    private void seedRobot(Robot robot, int index) {
+        if (seedMethods[index] == null) {
+            return;
+        }
+        long robotSeed = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + roundNum * 1000003L + index).nextLong();
+        try {
+            seedMethods[index].invoke(robot, robotSeed);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot seed " + robot.getClass().getName(), e);
+        }
+    }
+
+    private boolean overlapsPlaced(double x, double y, int count) {
+        for (int i = 0; i < count; i++) {
+            if (Math.abs(peers[i].x - x) < RobotPeer.HALF_SIZE * 2
+                    && Math.abs(peers[i].y - y) < RobotPeer.HALF_SIZE * 2) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void finishRound(long roundStartTurns) {
+        if (aliveCount == 1) {
+            for (RobotPeer peer : peers) {
+                if (peer.alive) {
+                    peer.results.lastSurvivorBonus += RobotResults.LAST_SURVIVOR_BONUS * (peers.length - 1);
+                    peer.results.firsts++;
+                    peer.addEvent(new WinEvent());
+                }
+            }
+        }
+        for (RobotPeer peer : peers) {
+            // After every other event of the final turn
+            peer.addEvent(new RoundEndedEvent(roundNum, (int) time, (int) (roundStartTurns + time)), time + 1);
+            peer.terminate();
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Bullets
+    // ---------------------------------------------------------------------
+
+    private void updateBullets() {
+        for (int i = 0; i < bullets.size(); i++) {
+            SimBullet b = bullets.get(i);
+            b.lastX = b.x;
+            b.lastY = b.y;
+            b.x += b.sin * b.speed;
+            b.y += b.cos * b.speed;
+        }
+        for (int i = 0; i < bullets.size(); i++) {
+            SimBullet b = bullets.get(i);
+            if (!b.active) {
+                continue;
+            }
+            if (checkBulletCollision(b) || checkRobotHit(b)) {
+                continue;
+            }
+            if (b.x < 0 || b.y < 0 || b.x > width || b.y > height) {
+                b.active = false;
+                b.owner.addEvent(new BulletMissedEvent(b.snapshot(null)));
+            }
+        }
+        for (int i = bullets.size() - 1; i >= 0; i--) {
+            if (!bullets.get(i).active) {
+                bullets.remove(i);
+            }
+        }
+    }
+
+    private boolean checkBulletCollision(SimBullet b) {
+        for (int i = 0; i < bullets.size(); i++) {
+            SimBullet other = bullets.get(i);
+            if (other == b || !other.active || other.owner == b.owner) {
+                continue;
+            }
+            if (segmentsIntersect(b.lastX, b.lastY, b.x, b.y, other.lastX, other.lastY, other.x, other.y)) {
+                b.active = false;
+                other.active = false;
+                b.owner.addEvent(new BulletHitBulletEvent(b.snapshot(null), other.snapshot(null)));
+                other.owner.addEvent(new BulletHitBulletEvent(other.snapshot(null), b.snapshot(null)));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean checkRobotHit(SimBullet b) {
+        for (RobotPeer victim : peers) {
+            if (!victim.alive || victim == b.owner) {
+                continue;
+            }
+            if (!segmentHitsBox(b.lastX, b.lastY, b.x, b.y, victim.x, victim.y)) {
+                continue;
+            }
+            RobotPeer owner = b.owner;
+            double damage = Rules.getBulletDamage(b.power);
+            double score = Math.min(damage, victim.energy);
+            victim.energy -= damage;
+            victim.results.damageTaken += score;
+            owner.energy += Rules.getBulletHitBonus(b.power);
+            owner.results.bulletDamage += score;
+            owner.results.shotsHit++;
+            bulletDamageDealt[owner.index][victim.index] += score;
+            lastDamageTime = time;
+            b.active = false;
+            b.x = Math.max(victim.x - RobotPeer.HALF_SIZE, Math.min(victim.x + RobotPeer.HALF_SIZE, b.x));
+            b.y = Math.max(victim.y - RobotPeer.HALF_SIZE, Math.min(victim.y + RobotPeer.HALF_SIZE, b.y));
+            Bullet snapshot = b.snapshot(victim.name);
+            owner.addEvent(new BulletHitEvent(victim.name, Math.max(victim.energy, 0), snapshot));
+            victim.addEvent(new HitByBulletEvent(
+                    Utils.normalRelativeAngle(b.heading + Math.PI - victim.heading), snapshot));
+            if (victim.energy <= 0) {
+                owner.results.bulletKillBonus +=
+                        bulletDamageDealt[owner.index][victim.index] * RobotResults.BULLET_KILL_BONUS;
+                kill(victim);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    // ---------------------------------------------------------------------
+    // Robots
+    // ---------------------------------------------------------------------
+
+    private void updateRobots() {
+        for (RobotPeer peer : peers) {
+            if (!peer.alive) {
+                continue;
+            }
+            peer.lastRadarHeading = peer.radarHeading;
+            updateGun(peer);
+            if (peer.energy > 0) {
+                updateHeadings(peer);
+                updateMovement(peer);
+                checkWallCollision(peer);
+                checkRobotCollisions(peer);
+            }
+        }
+    }
+
+    private void updateGun(RobotPeer peer) {
+        peer.gunHeat = Math.max(0, peer.gunHeat - gunCoolingRate);
+        if (peer.fireBulletId != 0 && peer.gunHeat == 0 && peer.energy > 0) {
+            double power = Math.min(peer.firePower, peer.energy);
+            peer.energy -= power;
+            peer.gunHeat = Rules.getGunHeat(power);
+            peer.results.shotsFired++;
+            bullets.add(new SimBullet(peer, peer.fireBulletId, peer.x, peer.y, peer.gunHeading, power,
+                    Rules.getBulletSpeed(power)));
+        }
+        peer.fireBulletId = 0;
+        peer.firePower = 0;
+    }
+
+    private void updateHeadings(RobotPeer peer) {
+        double maxTurn = Math.min(peer.maxTurnRate, Rules.getTurnRateRadians(peer.velocity));
+        double bodyTurn = clamp(peer.turnRemaining, -maxTurn, maxTurn);
+        peer.heading = Utils.normalAbsoluteAngle(peer.heading + bodyTurn);
+        peer.turnRemaining -= bodyTurn;
+
+        double gunTurn = clamp(peer.gunTurnRemaining, -Rules.GUN_TURN_RATE_RADIANS, Rules.GUN_TURN_RATE_RADIANS);
+        peer.gunTurnRemaining -= gunTurn;
+        if (!peer.adjustGunForBody) {
+            gunTurn += bodyTurn;
+        }
+        peer.gunHeading = Utils.normalAbsoluteAngle(peer.gunHeading + gunTurn);
+
+        double radarTurn = clamp(peer.radarTurnRemaining,
+                -Rules.RADAR_TURN_RATE_RADIANS, Rules.RADAR_TURN_RATE_RADIANS);
+        peer.radarTurnRemaining -= radarTurn;
+        if (!peer.adjustRadarForGun) {
+            radarTurn += gunTurn;
+        } else if (!peer.adjustRadarForBody) {
+            radarTurn += bodyTurn;
+        }
+        peer.radarHeading = Utils.normalAbsoluteAngle(peer.radarHeading + radarTurn);
+    }
+
+    private void updateMovement(RobotPeer peer) {
+        double distance = peer.distanceRemaining;
+        peer.velocity = newVelocity(peer.velocity, distance, peer.maxVelocity);
+        peer.x += peer.velocity * Math.sin(peer.heading);
+        peer.y += peer.velocity * Math.cos(peer.heading);
+        peer.distanceRemaining = distance - peer.velocity;
+        if (Math.abs(peer.distanceRemaining) < 1e-9) {
+            peer.distanceRemaining = 0;
+        }
+    }
+
+    private void checkWallCollision(RobotPeer peer) {
+        double minX = RobotPeer.HALF_SIZE;
+        double minY = RobotPeer.HALF_SIZE;
+        double maxX = width - RobotPeer.HALF_SIZE;
+        double maxY = height - RobotPeer.HALF_SIZE;
+        double wallAngle;
+        if (peer.x < minX) {
+            wallAngle = 1.5 * Math.PI;
+        } else if (peer.x > maxX) {
+            wallAngle = 0.5 * Math.PI;
+        } else if (peer.y < minY) {
+            wallAngle = Math.PI;
+        } else if (peer.y > maxY) {
+            wallAngle = 0;
+        } else {
+            return;
+        }
+        peer.x = clamp(peer.x, minX, maxX);
+        peer.y = clamp(peer.y, minY, maxY);
+        if (peer.advanced) {
+            double damage = Rules.getWallHitDamage(peer.velocity);
+            peer.energy -= damage;
+            peer.results.damageTaken += damage;
+            if (peer.energy <= 0) {
+                kill(peer);
+            }
+        }
+        peer.velocity = 0;
+        peer.distanceRemaining = 0;
+        peer.addEvent(new HitWallEvent(Utils.normalRelativeAngle(wallAngle - peer.heading)));
+    }
+
+    private void checkRobotCollisions(RobotPeer peer) {
+        if (peer.velocity == 0) {
+            return;
+        }
+        for (RobotPeer other : peers) {
+            if (other == peer || !other.alive) {
+                continue;
+            }
+            double dx = other.x - peer.x;
+            double dy = other.y - peer.y;
+            if (Math.abs(dx) >= RobotPeer.HALF_SIZE * 2 || Math.abs(dy) >= RobotPeer.HALF_SIZE * 2) {
+                continue;
+            }
+            double bearing = Utils.normalRelativeAngle(Math.atan2(dx, dy) - peer.heading);
+            boolean towardOther = Math.abs(bearing) < Math.PI / 2;
+            if (towardOther != (peer.velocity > 0)) {
+                continue;
+            }
+            // Undo the move that caused the collision
+            peer.x -= peer.velocity * Math.sin(peer.heading);
+            peer.y -= peer.velocity * Math.cos(peer.heading);
+            peer.velocity = 0;
+            peer.distanceRemaining = 0;
+
+            peer.energy -= Rules.ROBOT_HIT_DAMAGE;
+            other.energy -= Rules.ROBOT_HIT_DAMAGE;
+            peer.results.damageTaken += Rules.ROBOT_HIT_DAMAGE;
+            other.results.damageTaken += Rules.ROBOT_HIT_DAMAGE;
+            peer.results.ramDamage += Rules.ROBOT_HIT_BONUS;
+            ramDamageDealt[peer.index][other.index] += Rules.ROBOT_HIT_BONUS;
+            lastDamageTime = time;
+
+            double otherBearing = Utils.normalRelativeAngle(Math.atan2(-dx, -dy) - other.heading);
+            peer.addEvent(new HitRobotEvent(other.name, bearing, other.energy, true));
+            other.addEvent(new HitRobotEvent(peer.name, otherBearing, peer.energy, false));
+
+            if (other.energy <= 0 && other.alive) {
+                peer.results.ramKillBonus += ramDamageDealt[peer.index][other.index] * RobotResults.RAM_KILL_BONUS;
+                kill(other);
+            }
+            if (peer.energy <= 0) {
+                kill(peer);
+                return;
+            }
+        }
+    }
+
+    private void scanRobots() {
+        for (RobotPeer peer : peers) {
+            if (!peer.alive) {
+                continue;
+            }
+            double start = peer.lastRadarHeading;
+            double sweep = Utils.normalRelativeAngle(peer.radarHeading - start);
+            for (RobotPeer other : peers) {
+                if (other == peer || !other.alive) {
+                    continue;
+                }
+                double dx = other.x - peer.x;
+                double dy = other.y - peer.y;
+                double distance = Math.sqrt(dx * dx + dy * dy);
+                if (distance - RobotPeer.HALF_SIZE > Rules.RADAR_SCAN_RADIUS) {
+                    continue;
+                }
+                double angle = Math.atan2(dx, dy);
+                double offset = Utils.normalRelativeAngle(angle - start);
+                double tolerance = Math.atan2(RobotPeer.HALF_SIZE, distance);
+                boolean seen = sweep >= 0
+                        ? offset >= -tolerance && offset <= sweep + tolerance
+                        : offset <= tolerance && offset >= sweep - tolerance;
+                if (seen) {
+                    peer.addEvent(new ScannedRobotEvent(other.name, other.energy,
+                            Utils.normalRelativeAngle(angle - peer.heading), distance,
+                            other.heading, other.velocity, false));
+                }
+            }
+        }
+    }
+
+    private void handleInactivity() {
+        if (time - lastDamageTime <= INACTIVITY_TIME) {
+            return;
+        }
+        for (RobotPeer peer : peers) {
+            if (peer.alive) {
+                peer.energy -= INACTIVITY_ZAP;
+                if (peer.energy <= 0) {
+                    kill(peer);
+                }
+            }
+        }
+    }
+
+    private void kill(RobotPeer peer) {
+        if (peer.alive) {
+            peer.alive = false;
+            peer.energy = 0;
+            deadThisTurn.add(peer);
+        }
+    }
+
+    private void handleDeaths() {
+        if (deadThisTurn.isEmpty()) {
+            return;
+        }
+        aliveCount -= deadThisTurn.size();
+        for (RobotPeer peer : peers) {
+            if (peer.alive) {
+                peer.results.survival += RobotResults.SURVIVAL_SCORE * deadThisTurn.size();
+                for (RobotPeer dead : deadThisTurn) {
+                    peer.addEvent(new RobotDeathEvent(dead.name));
+                }
+            }
+        }
+        for (RobotPeer dead : deadThisTurn) {
+            dead.addEvent(new DeathEvent());
+            dead.takeTurn();
+        }
+        deadThisTurn.clear();
+    }
+
+    // ---------------------------------------------------------------------
+    // Physics helpers
+    // ---------------------------------------------------------------------
+
+    /**
+     * Robocode 1.9 velocity rule: accelerate by 1, decelerate by 2, and never
+     * overshoot the remaining distance.
+     */
+    static double newVelocity(double velocity, double distance, double maxVelocity) {
+        if (distance < 0) {
+            return -newVelocity(-velocity, -distance, maxVelocity);
+        }
+        double goalVelocity = Math.min(maxVelocity(distance), maxVelocity);
+        if (velocity >= 0) {
+            return Math.max(velocity - Rules.DECELERATION, Math.min(goalVelocity, velocity + Rules.ACCELERATION));
+        }
+        return Math.max(velocity - Rules.ACCELERATION, Math.min(goalVelocity, velocity + maxDeceleration(-velocity)));
+    }
+
+    private static double maxVelocity(double distance) {
+        double decelTime = Math.max(1, Math.ceil((Math.sqrt((4 * 2 / Rules.DECELERATION) * distance + 1) - 1) / 2));
+        if (decelTime == Double.POSITIVE_INFINITY) {
+            return Rules.MAX_VELOCITY;
+        }
+        double decelDist = (decelTime / 2.0) * (decelTime - 1) * Rules.DECELERATION;
+        return ((decelTime - 1) * Rules.DECELERATION) + ((distance - decelDist) / decelTime);
+    }
+
+    private static double maxDeceleration(double speed) {
+        double decelTime = speed / Rules.DECELERATION;
+        double accelTime = 1 - decelTime;
+        return Math.min(1, decelTime) * Rules.DECELERATION + Math.max(0, accelTime) * Rules.ACCELERATION;
+    }
+
+    /**
+     * Liang-Barsky test of a bullet's path this turn against a robot's bounding box.
+     */
+    private static boolean segmentHitsBox(double x1, double y1, double x2, double y2, double cx, double cy) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double t0 = 0;
+        double t1 = 1;
+        double[] p = {-dx, dx, -dy, dy};
+        double[] q = {x1 - (cx - RobotPeer.HALF_SIZE), (cx + RobotPeer.HALF_SIZE) - x1,
+                y1 - (cy - RobotPeer.HALF_SIZE), (cy + RobotPeer.HALF_SIZE) - y1};
+        for (int i = 0; i < 4; i++) {
+            if (p[i] == 0) {
+                if (q[i] < 0) {
+                    return false;
+                }
+            } else {
+                double t = q[i] / p[i];
+                if (p[i] < 0) {
+                    t0 = Math.max(t0, t);
+                } else {
+                    t1 = Math.min(t1, t);
+                }
+                if (t0 > t1) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean segmentsIntersect(double ax1, double ay1, double ax2, double ay2,
+                                             double bx1, double by1, double bx2, double by2) {
+        double d1 = cross(bx1, by1, bx2, by2, ax1, ay1);
+        double d2 = cross(bx1, by1, bx2, by2, ax2, ay2);
+        double d3 = cross(ax1, ay1, ax2, ay2, bx1, by1);
+        double d4 = cross(ax1, ay1, ax2, ay2, bx2, by2);
+        return ((d1 > 0 && d2 < 0) || (d1 < 0 && d2 > 0)) && ((d3 > 0 && d4 < 0) || (d3 < 0 && d4 > 0));
+    }
+
+    private static double cross(double ox, double oy, double ax, double ay, double bx, double by) {
+        return (ax - ox) * (by - oy) - (ay - oy) * (bx - ox);
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return value < min ? min : (value > max ? max : value);
+    }
+
+    // ---------------------------------------------------------------------
+    // Robot loading
+    // ---------------------------------------------------------------------
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Class<? extends Robot>[] loadRobotClasses(String[] classNames) {
+        Class<? extends Robot>[] classes = new Class[classNames.length];
+        ClassLoader parent = Battle.class.getClassLoader();
+        for (int i = 0; i < classNames.length; i++) {
+            try {
+                Class<?> c = Class.forName(classNames[i], true, new RobotClassLoader(parent));
+                classes[i] = c.asSubclass(Robot.class);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException("Robot class not found: " + classNames[i], e);
+            } catch (ClassCastException e) {
+                throw new IllegalArgumentException(classNames[i] + " does not extend robocode.Robot", e);
+            }
+        }
+        return classes;
+    }
+
+    private static Method[] findSeedMethods(Class<? extends Robot>[] classes) {
+        Method[] methods = new Method[classes.length];
+        for (int i = 0; i < classes.length; i++) {
+            try {
+                methods[i] = classes[i].getMethod("setRandomSeed", long.class);
+            } catch (NoSuchMethodException e) {
+                methods[i] = null;
+            }
+        }
+        return methods;
+    }
+
+    private static Robot newRobot(Class<? extends Robot> robotClass) {
+        try {
+            return robotClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot instantiate " + robotClass.getName(), e);
+        }
+    }
+
+    /**
+     * Robocode names duplicate robots "name (1)", "name (2)" and so on.
+     */
+    private static String[] robotNames(String[] classNames) {
+        String[] names = new String[classNames.length];
+        for (int i = 0; i < classNames.length; i++) {
+            int count = 0;
+            int position = 0;
+            for (int j = 0; j < classNames.length; j++) {
+                if (classNames[j].equals(classNames[i])) {
+                    count++;
+                    if (j <= i) {
+                        position++;
+                    }
+                }
+            }
+            names[i] = count > 1 ? classNames[i] + " (" + position + ")" : classNames[i];
+        }
+        return names;
+    }
+}
@@ -0,0 +1,92 @@
+package gj.eh.sim;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Command line entry point for the headless engine.
+ *
+ * <pre>
+ * java -cp out gj.eh.sim.HeadlessBattle [-rounds N] [-width W] [-height H] [-seed S]
+ *                                       [-maxTurns T] [-cpuConstant MICROS] [-data DIR]
+ *                                       [-virtual] [-verbose] robotClass robotClass...
+ * </pre>
+ */
+public final class HeadlessBattle {
+
+    private HeadlessBattle() {
+    }
+
+    public static void main(String[] args) {
+        int rounds = 10;
+        int width = 800;
+        int height = 600;
+        long seed = 1;
+        int maxTurns = 30000;
+        long cpuConstantMicros = 0;
+        String dataRoot = ".data";
+        boolean verbose = false;
+        boolean virtual = false;
+        ArrayList<String> robots = new ArrayList<String>();
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("-rounds")) {
+                rounds = Integer.parseInt(args[++i]);
+            } else if (arg.equals("-width")) {
+                width = Integer.parseInt(args[++i]);
+            } else if (arg.equals("-height")) {
+                height = Integer.parseInt(args[++i]);
+            } else if (arg.equals("-seed")) {
+                seed = Long.parseLong(args[++i]);
+            } else if (arg.equals("-maxTurns")) {
+                maxTurns = Integer.parseInt(args[++i]);
+            } else if (arg.equals("-cpuConstant")) {
+                cpuConstantMicros = Long.parseLong(args[++i]);
+            } else if (arg.equals("-data")) {
+                dataRoot = args[++i];
+            } else if (arg.equals("-virtual")) {
+                virtual = true;
+            } else if (arg.equals("-verbose")) {
+                verbose = true;
+            } else {
+                robots.add(arg);
+            }
+        }
+        if (robots.size() < 2) {
+            System.err.println("usage: HeadlessBattle [-rounds N] [-width W] [-height H] [-seed S]"
+                    + " [-maxTurns T] [-cpuConstant MICROS] [-data DIR] [-virtual] [-verbose] robotClass robotClass...");
+            System.exit(2);
+        }
+
+        Battle battle = new Battle(robots.toArray(new String[0]), rounds, width, height, seed, new File(dataRoot));
+        battle.setMaxTurns(maxTurns);
+        battle.setCpuConstantNanos(cpuConstantMicros * 1000);
+        battle.setVerbose(verbose);
+        battle.setVirtualThreads(virtual);
+
+        long start = System.nanoTime();
+        RobotResults[] results = battle.run();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        printResults(results);
+        System.out.printf("%d rounds, %d turns in %.2f s (%.0f rounds/s, %.0f turns/s)%n",
+                rounds, battle.getTotalTurns(), seconds, rounds / seconds, battle.getTotalTurns() / seconds);
+    }
+
+    static void printResults(RobotResults[] results) {
+        RobotResults[] sorted = Arrays.copyOf(results, results.length);
+        Arrays.sort(sorted, Comparator.comparingDouble(RobotResults::getTotalScore).reversed());
+        System.out.printf("%-4s %-28s %10s %9s %9s %9s %9s %9s %9s %6s %8s%n", "Rank", "Robot", "Total",
+                "Survival", "SurvBonus", "BulletDmg", "BulletBon", "RamDmg", "RamBonus", "1sts", "Skipped");
+        for (int i = 0; i < sorted.length; i++) {
+            RobotResults r = sorted[i];
+            System.out.printf("%-4d %-28s %10.0f %9.0f %9.0f %9.0f %9.0f %9.0f %9.0f %6d %8d%n", i + 1, r.getName(),
+                    r.getTotalScore(), r.getSurvival(), r.getLastSurvivorBonus(), r.getBulletDamage(),
+                    r.getBulletKillBonus(), r.getRamDamage(), r.getRamKillBonus(), r.getFirsts(),
+                    r.getSkippedTurns());
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package gj.eh.sim;
+
+/**
+ * Thrown on a robot's thread to unwind its run() method when the robot has died
+ * or the round is over. Extends Error so that robot code catching Exception
+ * cannot swallow it.
+ */
+final class RobotAbort extends Error {
+
+    private static final long serialVersionUID = 1L;
+
+    RobotAbort() {
+        super(null, null, false, false);
+    }
+}
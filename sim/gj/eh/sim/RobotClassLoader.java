@@ -0,0 +1,55 @@
+package gj.eh.sim;
+
+import java.io.File;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+/**
+ * Loads one robot's classes in isolation, like Robocode does, so that static
+ * fields are private to each robot in a battle and survive between rounds.
+ * The robot API and the engine itself are shared with the parent loader.
+ */
+final class RobotClassLoader extends URLClassLoader {
+
+    private static final String[] SHARED_PREFIXES = {"java.", "javax.", "jdk.", "sun.", "robocode.", "gj.eh.sim."};
+
+    RobotClassLoader(ClassLoader parent) {
+        super(classPath(), parent);
+    }
+
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        for (String prefix : SHARED_PREFIXES) {
+            if (name.startsWith(prefix)) {
+                return super.loadClass(name, resolve);
+            }
+        }
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> c = findLoadedClass(name);
+            if (c == null) {
+                try {
+                    c = findClass(name);
+                } catch (ClassNotFoundException e) {
+                    c = super.loadClass(name, false);
+                }
+            }
+            if (resolve) {
+                resolveClass(c);
+            }
+            return c;
+        }
+    }
+
+    private static URL[] classPath() {
+        String[] entries = System.getProperty("java.class.path").split(File.pathSeparator);
+        URL[] urls = new URL[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            try {
+                urls[i] = new File(entries[i]).toURI().toURL();
+            } catch (MalformedURLException e) {
+                throw new IllegalStateException("Bad class path entry " + entries[i], e);
+            }
+        }
+        return urls;
+    }
+}
@@ -0,0 +1,544 @@
+package gj.eh.sim;
+
+import robocode.AdvancedRobot;
+import robocode.Bullet;
+import robocode.BulletHitBulletEvent;
+import robocode.BulletHitEvent;
+import robocode.BulletMissedEvent;
+import robocode.DeathEvent;
+import robocode.Event;
+import robocode.HitByBulletEvent;
+import robocode.HitRobotEvent;
+import robocode.HitWallEvent;
+import robocode.Robot;
+import robocode.RobotDeathEvent;
+import robocode.RoundEndedEvent;
+import robocode.Rules;
+import robocode.ScannedRobotEvent;
+import robocode.SkippedTurnEvent;
+import robocode.WinEvent;
+import robocode.robotinterfaces.peer.IAdvancedRobotPeer;
+
+import java.awt.Color;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Engine-side state of one robot plus the turn hand-off with the robot's thread.
+ *
+ * Only one side runs at a time: the engine hands the turn to the robot, the robot
+ * runs its code until its next execute(), then hands the turn back. Physics state
+ * is therefore plain fields; the volatile {@code botTurn} flag publishes it.
+ */
+final class RobotPeer implements IAdvancedRobotPeer {
+
+    static final double HALF_SIZE = 18;
+
+    /** Events older than this many turns are dropped instead of dispatched. */
+    private static final int MAX_EVENT_AGE = 2;
+
+    /** Robocode's default data directory quota per robot. */
+    private static final long DATA_QUOTA = 200000;
+
+    /** Busy-wait iterations before parking; a hand-off usually completes within them. */
+    private static final int SPIN_TRIES = Runtime.getRuntime().availableProcessors() > 1 ? 500 : 0;
+
+    final Battle battle;
+    final int index;
+    final String name;
+    final RobotResults results;
+
+    Robot robot;
+    boolean advanced;
+
+    // Physics state, angles in radians
+    double x;
+    double y;
+    double heading;
+    double gunHeading;
+    double radarHeading;
+    double lastRadarHeading;
+    double velocity;
+    double energy;
+    double gunHeat;
+
+    // Pending commands
+    double distanceRemaining;
+    double turnRemaining;
+    double gunTurnRemaining;
+    double radarTurnRemaining;
+    double firePower;
+    int fireBulletId;
+    double maxVelocity;
+    double maxTurnRate;
+    boolean adjustGunForBody;
+    boolean adjustRadarForGun;
+    boolean adjustRadarForBody;
+
+    boolean alive;
+
+    private final ArrayList<Event> events = new ArrayList<Event>();
+    private int dispatchPriority = Integer.MIN_VALUE;
+    private boolean errorReported;
+
+    private Thread thread;
+    private Thread engineThread;
+    private volatile boolean botTurn;
+    private volatile boolean finished;
+    private volatile boolean terminal;
+
+    private final File dataDirectory;
+
+    RobotPeer(Battle battle, int index, String name, File dataDirectory) {
+        this.battle = battle;
+        this.index = index;
+        this.name = name;
+        this.dataDirectory = dataDirectory;
+        this.results = new RobotResults(name);
+    }
+
+    /**
+     * Places the robot for a new round. Called on the engine thread.
+     */
+    void reset(Robot robot, double x, double y, double heading) {
+        this.robot = robot;
+        this.advanced = robot instanceof AdvancedRobot;
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+        this.gunHeading = heading;
+        this.radarHeading = heading;
+        this.lastRadarHeading = heading;
+        this.velocity = 0;
+        this.energy = 100;
+        this.gunHeat = 3;
+        this.distanceRemaining = 0;
+        this.turnRemaining = 0;
+        this.gunTurnRemaining = 0;
+        this.radarTurnRemaining = 0;
+        this.firePower = 0;
+        this.fireBulletId = 0;
+        this.maxVelocity = Rules.MAX_VELOCITY;
+        this.maxTurnRate = Rules.MAX_TURN_RATE_RADIANS;
+        this.adjustGunForBody = false;
+        this.adjustRadarForGun = false;
+        this.adjustRadarForBody = false;
+        this.alive = true;
+        this.events.clear();
+        this.dispatchPriority = Integer.MIN_VALUE;
+        this.thread = null;
+        this.engineThread = Thread.currentThread();
+        this.finished = false;
+        this.terminal = false;
+        robot.setPeer(this);
+        robot.setOut(battle.robotOut);
+    }
+
+    void addEvent(Event event) {
+        addEvent(event, battle.time);
+    }
+
+    void addEvent(Event event, long time) {
+        event.setTime(time);
+        events.add(event);
+    }
+
+    // ---------------------------------------------------------------------
+    // Turn hand-off
+    // ---------------------------------------------------------------------
+
+    /**
+     * Lets the robot run until its next execute(). Called on the engine thread.
+     */
+    void takeTurn() {
+        if (finished) {
+            return;
+        }
+        botTurn = true;
+        if (thread == null) {
+            thread = RobotThreads.newThread(this::body, name, battle.virtualThreads);
+            thread.start();
+        } else {
+            LockSupport.unpark(thread);
+        }
+        long start = System.nanoTime();
+        long deadline = start + battle.turnTimeoutNanos;
+        for (int i = 0; botTurn && i < spinTries(); i++) {
+            Thread.onSpinWait();
+        }
+        while (botTurn) {
+            LockSupport.parkNanos(this, 1000000);
+            if (botTurn && System.nanoTime() - deadline > 0) {
+                battle.log(name + " did not yield within " + battle.turnTimeoutNanos / 1000000
+                        + " ms and has been disabled");
+                finished = true;
+                botTurn = false;
+            }
+        }
+        if (battle.cpuConstantNanos > 0 && alive && System.nanoTime() - start > battle.cpuConstantNanos) {
+            // The engine still waited, so the commands apply; the robot is only told
+            results.skippedTurns++;
+            if (advanced) {
+                addEvent(new SkippedTurnEvent(battle.time));
+            }
+        }
+    }
+
+    /**
+     * Delivers the final events and unwinds the robot's thread. A robot that
+     * died earlier in the round is parked until this is called.
+     */
+    void terminate() {
+        terminal = true;
+        takeTurn();
+    }
+
+    private void body() {
+        try {
+            robot.run();
+            idle();
+        } catch (RobotAbort abort) {
+            // Normal end of round or death
+        } catch (Throwable t) {
+            reportError(t);
+            try {
+                idle();
+            } catch (RobotAbort abort) {
+                // Normal end of round or death
+            }
+        }
+        try {
+            // Dead robots wait here so that they still get onRoundEnded
+            while (!terminal) {
+                yieldToEngine();
+            }
+            dispatchEvents(true);
+        } catch (RobotAbort abort) {
+            // A handler tried to move after the round was over
+        } finally {
+            finished = true;
+            botTurn = false;
+            LockSupport.unpark(engineThread);
+        }
+    }
+
+    private void idle() {
+        while (true) {
+            execute();
+        }
+    }
+
+    private void yieldToEngine() {
+        botTurn = false;
+        LockSupport.unpark(engineThread);
+        for (int i = 0; !botTurn && i < spinTries(); i++) {
+            Thread.onSpinWait();
+        }
+        while (!botTurn) {
+            LockSupport.park(this);
+        }
+    }
+
+    /**
+     * Spinning would hold the carrier a virtual thread needs to run the other side of the hand-off.
+     */
+    private int spinTries() {
+        return battle.virtualThreads ? 0 : SPIN_TRIES;
+    }
+
+    private void reportError(Throwable t) {
+        if (!errorReported) {
+            errorReported = true;
+            battle.log(name + " threw " + t);
+            if (battle.verbose) {
+                t.printStackTrace();
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Event dispatch, on the robot thread
+    // ---------------------------------------------------------------------
+
+    private void dispatchEvents(boolean all) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Collections.sort(events);
+        long oldest = battle.time - MAX_EVENT_AGE;
+        int i = 0;
+        while (i < events.size()) {
+            Event event = events.get(i);
+            if (!all && event.getTime() < oldest) {
+                events.remove(i);
+                continue;
+            }
+            if (!all && event.getPriority() <= dispatchPriority) {
+                i++;
+                continue;
+            }
+            events.remove(i);
+            int outerPriority = dispatchPriority;
+            dispatchPriority = event.getPriority();
+            try {
+                dispatch(event);
+            } catch (RobotAbort abort) {
+                throw abort;
+            } catch (RuntimeException e) {
+                reportError(e);
+            } finally {
+                dispatchPriority = outerPriority;
+            }
+            i = 0;
+        }
+    }
+
+    private void dispatch(Event event) {
+        if (event instanceof ScannedRobotEvent) {
+            robot.onScannedRobot((ScannedRobotEvent) event);
+        } else if (event instanceof HitByBulletEvent) {
+            robot.onHitByBullet((HitByBulletEvent) event);
+        } else if (event instanceof HitWallEvent) {
+            robot.onHitWall((HitWallEvent) event);
+        } else if (event instanceof HitRobotEvent) {
+            robot.onHitRobot((HitRobotEvent) event);
+        } else if (event instanceof BulletHitEvent) {
+            robot.onBulletHit((BulletHitEvent) event);
+        } else if (event instanceof BulletHitBulletEvent) {
+            robot.onBulletHitBullet((BulletHitBulletEvent) event);
+        } else if (event instanceof BulletMissedEvent) {
+            robot.onBulletMissed((BulletMissedEvent) event);
+        } else if (event instanceof RobotDeathEvent) {
+            robot.onRobotDeath((RobotDeathEvent) event);
+        } else if (event instanceof WinEvent) {
+            robot.onWin((WinEvent) event);
+        } else if (event instanceof DeathEvent) {
+            robot.onDeath((DeathEvent) event);
+        } else if (event instanceof SkippedTurnEvent) {
+            ((AdvancedRobot) robot).onSkippedTurn((SkippedTurnEvent) event);
+        } else if (event instanceof RoundEndedEvent) {
+            robot.onRoundEnded((RoundEndedEvent) event);
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // IAdvancedRobotPeer, called on the robot thread
+    // ---------------------------------------------------------------------
+
+    public void execute() {
+        if (terminal || !alive) {
+            throw new RobotAbort();
+        }
+        yieldToEngine();
+        if (terminal || !alive) {
+            dispatchEvents(true);
+            throw new RobotAbort();
+        }
+        dispatchEvents(false);
+    }
+
+    public void move(double distance) {
+        distanceRemaining = distance;
+        do {
+            execute();
+        } while (distanceRemaining != 0);
+    }
+
+    public void turnBody(double radians) {
+        turnRemaining = radians;
+        do {
+            execute();
+        } while (turnRemaining != 0);
+    }
+
+    public void turnGun(double radians) {
+        gunTurnRemaining = radians;
+        do {
+            execute();
+        } while (gunTurnRemaining != 0);
+    }
+
+    public void turnRadar(double radians) {
+        radarTurnRemaining = radians;
+        do {
+            execute();
+        } while (radarTurnRemaining != 0);
+    }
+
+    public Bullet fire(double power) {
+        Bullet bullet = setFire(power);
+        execute();
+        return bullet;
+    }
+
+    public Bullet setFire(double power) {
+        if (gunHeat > 0 || energy <= 0 || Double.isNaN(power)) {
+            return null;
+        }
+        power = Math.min(Math.max(power, Rules.MIN_BULLET_POWER), Math.min(Rules.MAX_BULLET_POWER, energy));
+        firePower = power;
+        fireBulletId = battle.nextBulletId();
+        return new Bullet(gunHeading, x, y, power, name, null, true, fireBulletId);
+    }
+
+    public void setMove(double distance) {
+        distanceRemaining = distance;
+    }
+
+    public void setTurnBody(double radians) {
+        turnRemaining = radians;
+    }
+
+    public void setTurnGun(double radians) {
+        gunTurnRemaining = radians;
+    }
+
+    public void setTurnRadar(double radians) {
+        radarTurnRemaining = radians;
+    }
+
+    public void setMaxVelocity(double newMaxVelocity) {
+        maxVelocity = Math.min(Math.max(newMaxVelocity, 0), Rules.MAX_VELOCITY);
+    }
+
+    public void setMaxTurnRate(double newMaxTurnRate) {
+        maxTurnRate = Math.min(Math.abs(newMaxTurnRate), Rules.MAX_TURN_RATE_RADIANS);
+    }
+
+    public File getDataDirectory() {
+        dataDirectory.mkdirs();
+        return dataDirectory;
+    }
+
+    public File getDataFile(String filename) {
+        return new File(getDataDirectory(), filename);
+    }
+
+    public long getDataQuotaAvailable() {
+        long used = 0;
+        File[] files = dataDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                used += file.length();
+            }
+        }
+        return Math.max(0, DATA_QUOTA - used);
+    }
+
+    public void stop(boolean overwrite) {
+        distanceRemaining = 0;
+        turnRemaining = 0;
+        gunTurnRemaining = 0;
+        radarTurnRemaining = 0;
+        execute();
+    }
+
+    public void setAdjustGunForBodyTurn(boolean adjust) {
+        adjustGunForBody = adjust;
+    }
+
+    public void setAdjustRadarForGunTurn(boolean adjust) {
+        adjustRadarForGun = adjust;
+    }
+
+    public void setAdjustRadarForBodyTurn(boolean adjust) {
+        adjustRadarForBody = adjust;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getTime() {
+        return battle.time;
+    }
+
+    public double getEnergy() {
+        return energy;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getVelocity() {
+        return velocity;
+    }
+
+    public double getBodyHeading() {
+        return heading;
+    }
+
+    public double getGunHeading() {
+        return gunHeading;
+    }
+
+    public double getRadarHeading() {
+        return radarHeading;
+    }
+
+    public double getGunHeat() {
+        return gunHeat;
+    }
+
+    public double getGunCoolingRate() {
+        return battle.gunCoolingRate;
+    }
+
+    public double getBattleFieldWidth() {
+        return battle.width;
+    }
+
+    public double getBattleFieldHeight() {
+        return battle.height;
+    }
+
+    public int getOthers() {
+        return battle.aliveCount - (alive ? 1 : 0);
+    }
+
+    public int getNumRounds() {
+        return battle.numRounds;
+    }
+
+    public int getRoundNum() {
+        return battle.roundNum;
+    }
+
+    public double getDistanceRemaining() {
+        return distanceRemaining;
+    }
+
+    public double getBodyTurnRemaining() {
+        return turnRemaining;
+    }
+
+    public double getGunTurnRemaining() {
+        return gunTurnRemaining;
+    }
+
+    public double getRadarTurnRemaining() {
+        return radarTurnRemaining;
+    }
+
+    public void setBodyColor(Color color) {
+    }
+
+    public void setGunColor(Color color) {
+    }
+
+    public void setRadarColor(Color color) {
+    }
+
+    public void setBulletColor(Color color) {
+    }
+
+    public void setScanColor(Color color) {
+    }
+}
@@ -0,0 +1,82 @@
+package gj.eh.sim;
+
+/**
+ * Accumulated Robocode score for one robot over a battle.
+ */
+public final class RobotResults {
+
+    static final double SURVIVAL_SCORE = 50;
+    static final double LAST_SURVIVOR_BONUS = 10;
+    static final double BULLET_KILL_BONUS = 0.2;
+    static final double RAM_KILL_BONUS = 0.3;
+
+    private final String name;
+
+    double survival;
+    double lastSurvivorBonus;
+    double bulletDamage;
+    double bulletKillBonus;
+    double ramDamage;
+    double ramKillBonus;
+    double damageTaken;
+    int firsts;
+    int shotsFired;
+    int shotsHit;
+    int skippedTurns;
+
+    RobotResults(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getTotalScore() {
+        return survival + lastSurvivorBonus + bulletDamage + bulletKillBonus + ramDamage + ramKillBonus;
+    }
+
+    public double getSurvival() {
+        return survival;
+    }
+
+    public double getLastSurvivorBonus() {
+        return lastSurvivorBonus;
+    }
+
+    public double getBulletDamage() {
+        return bulletDamage;
+    }
+
+    public double getBulletKillBonus() {
+        return bulletKillBonus;
+    }
+
+    public double getRamDamage() {
+        return ramDamage;
+    }
+
+    public double getRamKillBonus() {
+        return ramKillBonus;
+    }
+
+    public double getDamageTaken() {
+        return damageTaken;
+    }
+
+    public int getFirsts() {
+        return firsts;
+    }
+
+    public int getShotsFired() {
+        return shotsFired;
+    }
+
+    public int getShotsHit() {
+        return shotsHit;
+    }
+
+    public int getSkippedTurns() {
+        return skippedTurns;
+    }
+}
@@ -0,0 +1,62 @@
+package gj.eh.sim;
+
+import java.lang.reflect.Method;
+
+/**
+ * Creates the threads robots (and, in a tournament, whole battles) run on:
+ * virtual threads when asked for and the JVM has them (Java 21+), otherwise
+ * ordinary daemon threads. The virtual thread API is looked up reflectively so
+ * the simulator still builds and runs on Java 11.
+ *
+ * The turn hand-off only ever parks with LockSupport, so a robot blocked in
+ * ahead() or execute() unmounts from its carrier thread instead of holding an
+ * OS thread; tens of thousands of robots then cost little more than their stacks.
+ */
+final class RobotThreads {
+
+    private static final Method OF_VIRTUAL;
+    private static final Method BUILDER_NAME;
+    private static final Method BUILDER_UNSTARTED;
+
+    static {
+        Method ofVirtual = null;
+        Method builderName = null;
+        Method builderUnstarted = null;
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            builderName = builder.getMethod("name", String.class);
+            builderUnstarted = builder.getMethod("unstarted", Runnable.class);
+        } catch (ReflectiveOperationException e) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = builderName;
+        BUILDER_UNSTARTED = builderUnstarted;
+    }
+
+    private RobotThreads() {
+    }
+
+    static boolean isVirtualSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * An unstarted thread running {@code body}; virtual if {@code virtual} is
+     * set, which callers must only do when {@link #isVirtualSupported()}.
+     */
+    static Thread newThread(Runnable body, String name, boolean virtual) {
+        if (virtual) {
+            try {
+                Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), name);
+                return (Thread) BUILDER_UNSTARTED.invoke(builder, body);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot create a virtual thread", e);
+            }
+        }
+        Thread thread = new Thread(body, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
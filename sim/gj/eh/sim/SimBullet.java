@@ -0,0 +1,40 @@
+package gj.eh.sim;
+
+import robocode.Bullet;
+
+/**
+ * A bullet in flight. Positions are updated in place by the engine.
+ */
+final class SimBullet {
+
+    final RobotPeer owner;
+    final int id;
+    final double heading;
+    final double power;
+    final double speed;
+    final double sin;
+    final double cos;
+    double x;
+    double y;
+    double lastX;
+    double lastY;
+    boolean active = true;
+
+    SimBullet(RobotPeer owner, int id, double x, double y, double heading, double power, double speed) {
+        this.owner = owner;
+        this.id = id;
+        this.x = x;
+        this.y = y;
+        this.lastX = x;
+        this.lastY = y;
+        this.heading = heading;
+        this.power = power;
+        this.speed = speed;
+        this.sin = Math.sin(heading);
+        this.cos = Math.cos(heading);
+    }
+
+    Bullet snapshot(String victim) {
+        return new Bullet(heading, x, y, power, owner.name, victim, active, id);
+    }
+}
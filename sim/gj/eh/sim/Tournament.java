@@ -0,0 +1,410 @@
+package gj.eh.sim;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs every bot against every opponent on every battlefield size in 1v1
+ * battles, split into short battles with their own seeds, and reports score
+ * share, win rate and damage with 95% confidence intervals.
+ *
+ * <pre>
+ * java -cp out gj.eh.sim.Tournament [-rounds N] [-battleRounds R] [-fields WxH,WxH...] [-seed S]
+ *                                   [-threads N] [-virtual] [-maxTurns T] [-data DIR]
+ *                                   [-bots class,class...] [-opponents class,class...]
+ * </pre>
+ *
+ * {@code -rounds} is per bot, opponent and field, and is played as battles of
+ * {@code -battleRounds} rounds seeded {@code S, S+1, ...}; each battle is one
+ * sample for the intervals. Battles fan out over a fork-join pool, one battle
+ * per task. Every battle loads its own copies of the robot classes, so bots'
+ * statics never leak between battles running side by side. Both lists default
+ * to the whole lineage, ApexusBot and ApexV2 to ApexV5.
+ *
+ * With {@code -virtual} (Java 21+) every battle and every robot gets its own
+ * virtual thread instead, all started at once, and the JVM's carrier threads
+ * share out the cores.
+ */
+public final class Tournament {
+
+    static final String[] LINEAGE = {"gj.eh.ApexusBot", "MyBots.ApexV2", "MyBots.ApexV2Fixed",
+            "MyBots.ApexV3", "MyBots.ApexV4", "MyBots.ApexV5"};
+
+    private final String[] bots;
+    private final String[] opponents;
+    private final int[][] fields;
+    private final int battleRounds;
+    private final int battlesPerMatchup;
+    private final long seed;
+    private int maxTurns = 30000;
+    private File dataRoot = new File(".data", "tournament");
+    private boolean virtualThreads;
+
+    private final ArrayList<Matchup> matchups = new ArrayList<Matchup>();
+    private BattleResult[] results;
+
+    /**
+     * @param bots         robot classes being compared
+     * @param opponents    robot classes each bot fights; a bot is never matched against itself
+     * @param fields       battlefield {width, height} pairs
+     * @param rounds       rounds per bot, opponent and field
+     * @param battleRounds rounds per battle, i.e. per sample
+     * @param seed         seed of each matchup's first battle
+     */
+    public Tournament(String[] bots, String[] opponents, int[][] fields, int rounds, int battleRounds, long seed) {
+        if (battleRounds < 1 || rounds < battleRounds) {
+            throw new IllegalArgumentException("Need rounds >= battleRounds >= 1");
+        }
+        this.bots = bots;
+        this.opponents = opponents;
+        this.fields = fields;
+        this.battleRounds = battleRounds;
+        this.battlesPerMatchup = (rounds + battleRounds - 1) / battleRounds;
+        this.seed = seed;
+        for (int b = 0; b < bots.length; b++) {
+            for (int o = 0; o < opponents.length; o++) {
+                if (bots[b].equals(opponents[o])) {
+                    continue;
+                }
+                for (int f = 0; f < fields.length; f++) {
+                    matchups.add(new Matchup(b, o, f));
+                }
+            }
+        }
+        if (matchups.isEmpty()) {
+            throw new IllegalArgumentException("No bot has an opponent other than itself");
+        }
+    }
+
+    public void setMaxTurns(int maxTurns) {
+        this.maxTurns = maxTurns;
+    }
+
+    /**
+     * Parent of the per-battle data directories; battles never share one, so
+     * bots writing data files in parallel don't clobber each other.
+     */
+    public void setDataRoot(File dataRoot) {
+        this.dataRoot = dataRoot;
+    }
+
+    /**
+     * Robots run on virtual threads; see {@link Battle#setVirtualThreads(boolean)}.
+     */
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    public int getBattleCount() {
+        return matchups.size() * battlesPerMatchup;
+    }
+
+    /**
+     * Plays every battle on the given pool and returns the total turns played.
+     */
+    public long run(ForkJoinPool pool) {
+        results = new BattleResult[getBattleCount()];
+        pool.invoke(new BattleTask(0, results.length));
+        return totalTurns();
+    }
+
+    /**
+     * Plays every battle at once, each on its own virtual thread, and returns
+     * the total turns played. Needs Java 21 or later.
+     */
+    public long runOnVirtualThreads() throws InterruptedException {
+        if (!RobotThreads.isVirtualSupported()) {
+            throw new UnsupportedOperationException("Virtual threads need Java 21 or later");
+        }
+        virtualThreads = true;
+        results = new BattleResult[getBattleCount()];
+        final Throwable[] failure = new Throwable[1];
+        Thread[] threads = new Thread[results.length];
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+            threads[i] = RobotThreads.newThread(() -> {
+                try {
+                    results[index] = playBattle(index);
+                } catch (Throwable t) {
+                    failure[0] = t;
+                }
+            }, "battle-" + i, true);
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failure[0] != null) {
+            throw new IllegalStateException("A battle failed", failure[0]);
+        }
+        return totalTurns();
+    }
+
+    private long totalTurns() {
+        long turns = 0;
+        for (BattleResult result : results) {
+            turns += result.turns;
+        }
+        return turns;
+    }
+
+    // ---------------------------------------------------------------------
+    // Fork-join over battles
+    // ---------------------------------------------------------------------
+
+    private final class BattleTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        BattleTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                results[from] = playBattle(from);
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new BattleTask(from, mid), new BattleTask(mid, to));
+            }
+        }
+    }
+
+    private BattleResult playBattle(int index) {
+        Matchup matchup = matchups.get(index / battlesPerMatchup);
+        int battleNum = index % battlesPerMatchup;
+        int[] field = fields[matchup.field];
+        String[] robots = {bots[matchup.bot], opponents[matchup.opponent]};
+
+        Battle battle = new Battle(robots, battleRounds, field[0], field[1], seed + battleNum,
+                new File(dataRoot, "battle-" + index));
+        battle.setMaxTurns(maxTurns);
+        battle.setLog(null);
+        battle.setVirtualThreads(virtualThreads);
+        RobotResults[] battleResults = battle.run();
+        return new BattleResult(matchup, battleResults[0], battleResults[1], battleRounds, battle.getTotalTurns());
+    }
+
+    // ---------------------------------------------------------------------
+    // Aggregation
+    // ---------------------------------------------------------------------
+
+    private static final class Matchup {
+        final int bot;
+        final int opponent;
+        final int field;
+
+        Matchup(int bot, int opponent, int field) {
+            this.bot = bot;
+            this.opponent = opponent;
+            this.field = field;
+        }
+    }
+
+    /** One battle, seen from the bot's side: the sample unit for the intervals. */
+    private static final class BattleResult {
+        final Matchup matchup;
+        final double scoreShare;
+        final double winRate;
+        final double damagePerRound;
+        final double takenPerRound;
+        final long turns;
+
+        BattleResult(Matchup matchup, RobotResults bot, RobotResults opponent, int rounds, long turns) {
+            this.matchup = matchup;
+            double total = bot.getTotalScore() + opponent.getTotalScore();
+            this.scoreShare = total > 0 ? 100 * bot.getTotalScore() / total : 50;
+            this.winRate = 100.0 * bot.getFirsts() / rounds;
+            this.damagePerRound = bot.getBulletDamage() / rounds;
+            this.takenPerRound = bot.getDamageTaken() / rounds;
+            this.turns = turns;
+        }
+    }
+
+    /** Running mean and variance (Welford) with a Student-t 95% half-width. */
+    static final class Summary {
+        private int n;
+        private double mean;
+        private double m2;
+
+        void add(double value) {
+            n++;
+            double delta = value - mean;
+            mean += delta / n;
+            m2 += delta * (value - mean);
+        }
+
+        int count() {
+            return n;
+        }
+
+        double mean() {
+            return mean;
+        }
+
+        double halfWidth() {
+            if (n < 2) {
+                return Double.NaN;
+            }
+            return tCritical(n - 1) * Math.sqrt(m2 / (n - 1) / n);
+        }
+    }
+
+    private static final double[] T_975 = {12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262,
+            2.228, 2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086, 2.080, 2.074, 2.069,
+            2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042};
+
+    /** Two-sided 95% Student-t critical value. */
+    static double tCritical(int degreesOfFreedom) {
+        if (degreesOfFreedom <= T_975.length) {
+            return T_975[degreesOfFreedom - 1];
+        }
+        // Close enough past 30: 2.021 at 40, 2.000 at 60, 1.984 at 100
+        return 1.96 + 2.4 / degreesOfFreedom;
+    }
+
+    /**
+     * One line per bot, opponent and field, then each bot over all its matchups.
+     */
+    public void printResults(PrintStream out) {
+        String header = String.format("%-20s %-20s %-9s %6s %15s %15s %15s %15s", "Bot", "Opponent", "Field",
+                "Rounds", "Score %", "Wins %", "BulletDmg/rnd", "Taken/rnd");
+        out.println(header);
+        Summary[] overall = new Summary[4 * bots.length];
+        for (int i = 0; i < overall.length; i++) {
+            overall[i] = new Summary();
+        }
+        for (int m = 0; m < matchups.size(); m++) {
+            Matchup matchup = matchups.get(m);
+            Summary[] s = {new Summary(), new Summary(), new Summary(), new Summary()};
+            for (int i = m * battlesPerMatchup; i < (m + 1) * battlesPerMatchup; i++) {
+                BattleResult r = results[i];
+                double[] values = {r.scoreShare, r.winRate, r.damagePerRound, r.takenPerRound};
+                for (int k = 0; k < values.length; k++) {
+                    s[k].add(values[k]);
+                    overall[4 * matchup.bot + k].add(values[k]);
+                }
+            }
+            int[] field = fields[matchup.field];
+            out.printf("%-20s %-20s %-9s %6d %15s %15s %15s %15s%n", shortName(bots[matchup.bot]),
+                    shortName(opponents[matchup.opponent]), field[0] + "x" + field[1],
+                    battlesPerMatchup * battleRounds, format(s[0]), format(s[1]), format(s[2]), format(s[3]));
+        }
+        out.println();
+        out.printf("%-20s %-20s %-9s %6s %15s %15s %15s %15s%n", "Bot", "Overall", "", "Rounds", "Score %",
+                "Wins %", "BulletDmg/rnd", "Taken/rnd");
+        for (int b = 0; b < bots.length; b++) {
+            int k = 4 * b;
+            if (overall[k].count() == 0) {
+                continue;
+            }
+            out.printf("%-20s %-20s %-9s %6d %15s %15s %15s %15s%n", shortName(bots[b]), "", "",
+                    overall[k].count() * battleRounds, format(overall[k]), format(overall[k + 1]),
+                    format(overall[k + 2]), format(overall[k + 3]));
+        }
+    }
+
+    private static String format(Summary s) {
+        return String.format("%6.1f +-%5.1f", s.mean(), s.halfWidth());
+    }
+
+    private static String shortName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    // ---------------------------------------------------------------------
+    // Command line
+    // ---------------------------------------------------------------------
+
+    public static void main(String[] args) {
+        int rounds = 100;
+        int battleRounds = 10;
+        String fieldList = "800x600";
+        long seed = 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int maxTurns = 30000;
+        boolean virtual = false;
+        String dataRoot = null;
+        String[] bots = LINEAGE;
+        String[] opponents = LINEAGE;
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("-rounds")) {
+                rounds = Integer.parseInt(args[++i]);
+            } else if (arg.equals("-battleRounds")) {
+                battleRounds = Integer.parseInt(args[++i]);
+            } else if (arg.equals("-fields")) {
+                fieldList = args[++i];
+            } else if (arg.equals("-seed")) {
+                seed = Long.parseLong(args[++i]);
+            } else if (arg.equals("-threads")) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (arg.equals("-virtual")) {
+                virtual = true;
+            } else if (arg.equals("-maxTurns")) {
+                maxTurns = Integer.parseInt(args[++i]);
+            } else if (arg.equals("-data")) {
+                dataRoot = args[++i];
+            } else if (arg.equals("-bots")) {
+                bots = args[++i].split(",");
+            } else if (arg.equals("-opponents")) {
+                opponents = args[++i].split(",");
+            } else {
+                System.err.println("usage: Tournament [-rounds N] [-battleRounds R] [-fields WxH,WxH...] [-seed S]"
+                        + " [-threads N] [-virtual] [-maxTurns T] [-data DIR] [-bots class,...] [-opponents class,...]");
+                System.exit(2);
+            }
+        }
+
+        String[] sizes = fieldList.split(",");
+        int[][] fields = new int[sizes.length][];
+        for (int i = 0; i < sizes.length; i++) {
+            String[] wh = sizes[i].split("x");
+            fields[i] = new int[]{Integer.parseInt(wh[0]), Integer.parseInt(wh[1])};
+        }
+
+        Tournament tournament = new Tournament(bots, opponents, fields, rounds, battleRounds, seed);
+        tournament.setMaxTurns(maxTurns);
+        if (dataRoot != null) {
+            tournament.setDataRoot(new File(dataRoot));
+        }
+
+        if (virtual && !Battle.isVirtualThreadSupported()) {
+            System.err.println("Virtual threads need Java 21 or later, using a fork-join pool");
+            virtual = false;
+        }
+        long start = System.nanoTime();
+        long turns;
+        if (virtual) {
+            try {
+                turns = tournament.runOnVirtualThreads();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                turns = tournament.run(pool);
+            } finally {
+                pool.shutdown();
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        tournament.printResults(System.out);
+        int battles = tournament.getBattleCount();
+        System.out.printf("%d battles, %d rounds, %d turns on %s in %.2f s (%.0f rounds/s)%n", battles,
+                battles * battleRounds, turns, virtual ? "virtual threads" : threads + " threads", seconds,
+                battles * battleRounds / seconds);
+    }
+}
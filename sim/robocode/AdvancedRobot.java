@@ -0,0 +1,163 @@
+package robocode;
+
+import robocode.robotinterfaces.peer.IAdvancedRobotPeer;
+
+import java.io.File;
+
+/**
+ * Headless stand-in for {@code robocode.AdvancedRobot}. Adds non-blocking set*
+ * commands that are carried out together on the next {@link #execute()}.
+ * Unlike a {@link Robot}, an AdvancedRobot takes damage when it hits a wall.
+ */
+public class AdvancedRobot extends Robot {
+
+    private IAdvancedRobotPeer advancedPeer() {
+        return (IAdvancedRobotPeer) peer();
+    }
+
+    /**
+     * Commits all queued commands and waits for the next turn.
+     */
+    public void execute() {
+        peer().execute();
+    }
+
+    public void setAhead(double distance) {
+        advancedPeer().setMove(distance);
+    }
+
+    public void setBack(double distance) {
+        advancedPeer().setMove(-distance);
+    }
+
+    public void setTurnRight(double degrees) {
+        advancedPeer().setTurnBody(Math.toRadians(degrees));
+    }
+
+    public void setTurnLeft(double degrees) {
+        advancedPeer().setTurnBody(-Math.toRadians(degrees));
+    }
+
+    public void setTurnRightRadians(double radians) {
+        advancedPeer().setTurnBody(radians);
+    }
+
+    public void setTurnLeftRadians(double radians) {
+        advancedPeer().setTurnBody(-radians);
+    }
+
+    public void setTurnGunRight(double degrees) {
+        advancedPeer().setTurnGun(Math.toRadians(degrees));
+    }
+
+    public void setTurnGunLeft(double degrees) {
+        advancedPeer().setTurnGun(-Math.toRadians(degrees));
+    }
+
+    public void setTurnGunRightRadians(double radians) {
+        advancedPeer().setTurnGun(radians);
+    }
+
+    public void setTurnGunLeftRadians(double radians) {
+        advancedPeer().setTurnGun(-radians);
+    }
+
+    public void setTurnRadarRight(double degrees) {
+        advancedPeer().setTurnRadar(Math.toRadians(degrees));
+    }
+
+    public void setTurnRadarLeft(double degrees) {
+        advancedPeer().setTurnRadar(-Math.toRadians(degrees));
+    }
+
+    public void setTurnRadarRightRadians(double radians) {
+        advancedPeer().setTurnRadar(radians);
+    }
+
+    public void setTurnRadarLeftRadians(double radians) {
+        advancedPeer().setTurnRadar(-radians);
+    }
+
+    /**
+     * Queues a shot for the next execute(). Does nothing while the gun is hot.
+     */
+    public void setFire(double power) {
+        peer().setFire(power);
+    }
+
+    public Bullet setFireBullet(double power) {
+        return peer().setFire(power);
+    }
+
+    public void setMaxVelocity(double newMaxVelocity) {
+        advancedPeer().setMaxVelocity(newMaxVelocity);
+    }
+
+    public void setMaxTurnRate(double newMaxTurnRate) {
+        advancedPeer().setMaxTurnRate(Math.toRadians(newMaxTurnRate));
+    }
+
+    public double getDistanceRemaining() {
+        return peer().getDistanceRemaining();
+    }
+
+    public double getTurnRemaining() {
+        return Math.toDegrees(peer().getBodyTurnRemaining());
+    }
+
+    public double getTurnRemainingRadians() {
+        return peer().getBodyTurnRemaining();
+    }
+
+    public double getGunTurnRemaining() {
+        return Math.toDegrees(peer().getGunTurnRemaining());
+    }
+
+    public double getGunTurnRemainingRadians() {
+        return peer().getGunTurnRemaining();
+    }
+
+    public double getRadarTurnRemaining() {
+        return Math.toDegrees(peer().getRadarTurnRemaining());
+    }
+
+    public double getRadarTurnRemainingRadians() {
+        return peer().getRadarTurnRemaining();
+    }
+
+    /**
+     * The robot's own data directory, created on first use.
+     */
+    public File getDataDirectory() {
+        return advancedPeer().getDataDirectory();
+    }
+
+    /**
+     * A file in the robot's data directory. Write to it with {@link RobocodeFileOutputStream}.
+     */
+    public File getDataFile(String filename) {
+        return advancedPeer().getDataFile(filename);
+    }
+
+    /**
+     * Bytes the robot may still write to its data directory.
+     */
+    public long getDataQuotaAvailable() {
+        return advancedPeer().getDataQuotaAvailable();
+    }
+
+    public double getHeadingRadians() {
+        return peer().getBodyHeading();
+    }
+
+    public double getGunHeadingRadians() {
+        return peer().getGunHeading();
+    }
+
+    public double getRadarHeadingRadians() {
+        return peer().getRadarHeading();
+    }
+
+    public void onSkippedTurn(SkippedTurnEvent event) {
+    }
+}
@@ -0,0 +1,78 @@
+package robocode;
+
+/**
+ * Snapshot of a bullet in flight. Two snapshots of the same shot compare equal,
+ * so a bullet returned by {@link Robot#fireBullet(double)} can be matched against
+ * the bullet carried by a later hit or miss event.
+ */
+public class Bullet {
+
+    private final double headingRadians;
+    private final double x;
+    private final double y;
+    private final double power;
+    private final String ownerName;
+    private final String victimName;
+    private final boolean isActive;
+    private final int bulletId;
+
+    public Bullet(double heading, double x, double y, double power, String ownerName,
+                  String victimName, boolean isActive, int bulletId) {
+        this.headingRadians = heading;
+        this.x = x;
+        this.y = y;
+        this.power = power;
+        this.ownerName = ownerName;
+        this.victimName = victimName;
+        this.isActive = isActive;
+        this.bulletId = bulletId;
+    }
+
+    public double getHeading() {
+        return Math.toDegrees(headingRadians);
+    }
+
+    public double getHeadingRadians() {
+        return headingRadians;
+    }
+
+    public String getName() {
+        return ownerName;
+    }
+
+    public double getPower() {
+        return power;
+    }
+
+    public double getVelocity() {
+        return Rules.getBulletSpeed(power);
+    }
+
+    public String getVictim() {
+        return victimName;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public boolean isActive() {
+        return isActive;
+    }
+
+    public boolean equals(Object obj) {
+        if (!(obj instanceof Bullet)) {
+            return false;
+        }
+        Bullet other = (Bullet) obj;
+        return bulletId == other.bulletId && ownerName.equals(other.ownerName);
+    }
+
+    public int hashCode() {
+        return 31 * ownerName.hashCode() + bulletId;
+    }
+}
@@ -0,0 +1,27 @@
+package robocode;
+
+/**
+ * Sent when one of our bullets collides with another bullet.
+ */
+public class BulletHitBulletEvent extends Event {
+
+    private final Bullet bullet;
+    private final Bullet hitBullet;
+
+    public BulletHitBulletEvent(Bullet bullet, Bullet hitBullet) {
+        this.bullet = bullet;
+        this.hitBullet = hitBullet;
+    }
+
+    public Bullet getBullet() {
+        return bullet;
+    }
+
+    public Bullet getHitBullet() {
+        return hitBullet;
+    }
+
+    int getDefaultPriority() {
+        return 55;
+    }
+}
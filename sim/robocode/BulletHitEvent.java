@@ -0,0 +1,36 @@
+package robocode;
+
+/**
+ * Sent when one of our bullets hits another robot.
+ */
+public class BulletHitEvent extends Event {
+
+    private final String name;
+    private final double energy;
+    private final Bullet bullet;
+
+    public BulletHitEvent(String name, double energy, Bullet bullet) {
+        this.name = name;
+        this.energy = energy;
+        this.bullet = bullet;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Remaining energy of the robot that was hit.
+     */
+    public double getEnergy() {
+        return energy;
+    }
+
+    public Bullet getBullet() {
+        return bullet;
+    }
+
+    int getDefaultPriority() {
+        return 50;
+    }
+}
@@ -0,0 +1,21 @@
+package robocode;
+
+/**
+ * Sent when one of our bullets leaves the battlefield without hitting anything.
+ */
+public class BulletMissedEvent extends Event {
+
+    private final Bullet bullet;
+
+    public BulletMissedEvent(Bullet bullet) {
+        this.bullet = bullet;
+    }
+
+    public Bullet getBullet() {
+        return bullet;
+    }
+
+    int getDefaultPriority() {
+        return 60;
+    }
+}
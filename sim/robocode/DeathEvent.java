@@ -0,0 +1,11 @@
+package robocode;
+
+/**
+ * Sent to a robot when it dies. Always delivered, even from inside another handler.
+ */
+public class DeathEvent extends Event {
+
+    int getDefaultPriority() {
+        return -1;
+    }
+}
@@ -0,0 +1,40 @@
+package robocode;
+
+/**
+ * Base class for all events delivered to a robot by the headless engine.
+ * Mirrors the public surface of the Robocode event hierarchy.
+ */
+public abstract class Event implements Comparable<Event> {
+
+    private long time;
+
+    /**
+     * Returns the time (turn) at which the event was generated.
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Called by the engine when the event is queued.
+     */
+    public void setTime(long time) {
+        this.time = time;
+    }
+
+    /**
+     * Higher priorities are dispatched first and may interrupt handlers of lower priority.
+     */
+    public int getPriority() {
+        return getDefaultPriority();
+    }
+
+    abstract int getDefaultPriority();
+
+    public int compareTo(Event other) {
+        if (time != other.time) {
+            return time < other.time ? -1 : 1;
+        }
+        return other.getPriority() - getPriority();
+    }
+}
@@ -0,0 +1,54 @@
+package robocode;
+
+/**
+ * Sent when one of the other robots' bullets hits us.
+ */
+public class HitByBulletEvent extends Event {
+
+    private final double bearing;
+    private final Bullet bullet;
+
+    public HitByBulletEvent(double bearing, Bullet bullet) {
+        this.bearing = bearing;
+        this.bullet = bullet;
+    }
+
+    /**
+     * Bearing to the bullet's origin direction relative to our body heading, in degrees.
+     */
+    public double getBearing() {
+        return Math.toDegrees(bearing);
+    }
+
+    public double getBearingRadians() {
+        return bearing;
+    }
+
+    public Bullet getBullet() {
+        return bullet;
+    }
+
+    public String getName() {
+        return bullet.getName();
+    }
+
+    public double getHeading() {
+        return bullet.getHeading();
+    }
+
+    public double getHeadingRadians() {
+        return bullet.getHeadingRadians();
+    }
+
+    public double getPower() {
+        return bullet.getPower();
+    }
+
+    public double getVelocity() {
+        return bullet.getVelocity();
+    }
+
+    int getDefaultPriority() {
+        return 20;
+    }
+}
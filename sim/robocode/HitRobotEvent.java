@@ -0,0 +1,46 @@
+package robocode;
+
+/**
+ * Sent when we collide with another robot.
+ */
+public class HitRobotEvent extends Event {
+
+    private final String robotName;
+    private final double bearing;
+    private final double energy;
+    private final boolean atFault;
+
+    public HitRobotEvent(String name, double bearing, double energy, boolean atFault) {
+        this.robotName = name;
+        this.bearing = bearing;
+        this.energy = energy;
+        this.atFault = atFault;
+    }
+
+    public String getName() {
+        return robotName;
+    }
+
+    public double getBearing() {
+        return Math.toDegrees(bearing);
+    }
+
+    public double getBearingRadians() {
+        return bearing;
+    }
+
+    public double getEnergy() {
+        return energy;
+    }
+
+    /**
+     * True if we were moving toward the other robot when the collision happened.
+     */
+    public boolean isMyFault() {
+        return atFault;
+    }
+
+    int getDefaultPriority() {
+        return 40;
+    }
+}
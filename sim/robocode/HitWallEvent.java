@@ -0,0 +1,28 @@
+package robocode;
+
+/**
+ * Sent when the robot collides with a wall.
+ */
+public class HitWallEvent extends Event {
+
+    private final double bearing;
+
+    public HitWallEvent(double bearing) {
+        this.bearing = bearing;
+    }
+
+    /**
+     * Bearing to the wall relative to our body heading, in degrees.
+     */
+    public double getBearing() {
+        return Math.toDegrees(bearing);
+    }
+
+    public double getBearingRadians() {
+        return bearing;
+    }
+
+    int getDefaultPriority() {
+        return 30;
+    }
+}
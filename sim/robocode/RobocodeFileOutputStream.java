@@ -0,0 +1,44 @@
+package robocode;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output stream for writing files in the robot's data directory. The stand-in
+ * does not enforce the data quota; robots should check
+ * {@link AdvancedRobot#getDataQuotaAvailable()} themselves, as they must in Robocode.
+ */
+public class RobocodeFileOutputStream extends OutputStream {
+
+    private final FileOutputStream out;
+
+    public RobocodeFileOutputStream(File file) throws IOException {
+        this(file.getPath(), false);
+    }
+
+    public RobocodeFileOutputStream(String fileName) throws IOException {
+        this(fileName, false);
+    }
+
+    public RobocodeFileOutputStream(String fileName, boolean append) throws IOException {
+        out = new FileOutputStream(fileName, append);
+    }
+
+    public void write(int b) throws IOException {
+        out.write(b);
+    }
+
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,265 @@
+package robocode;
+
+import robocode.robotinterfaces.peer.IBasicRobotPeer;
+
+import java.awt.Color;
+import java.io.PrintStream;
+
+/**
+ * Headless stand-in for {@code robocode.Robot}. It exposes the same public API as
+ * the Robocode class so that bots compiled against it also compile against the
+ * real robocode.jar. Every movement call blocks until the engine has finished it.
+ */
+public class Robot implements Runnable {
+
+    private IBasicRobotPeer peer;
+
+    /**
+     * The robot's console output.
+     */
+    public PrintStream out;
+
+    /**
+     * Called by the engine before {@link #run()}.
+     */
+    public final void setPeer(IBasicRobotPeer peer) {
+        this.peer = peer;
+    }
+
+    /**
+     * Called by the engine before {@link #run()}.
+     */
+    public final void setOut(PrintStream out) {
+        this.out = out;
+    }
+
+    IBasicRobotPeer peer() {
+        if (peer == null) {
+            throw new RobotException("You cannot call robot methods before run() has started");
+        }
+        return peer;
+    }
+
+    /**
+     * The main method of the robot. Most robots loop here forever.
+     */
+    public void run() {
+    }
+
+    public void ahead(double distance) {
+        peer().move(distance);
+    }
+
+    public void back(double distance) {
+        peer().move(-distance);
+    }
+
+    public void turnRight(double degrees) {
+        peer().turnBody(Math.toRadians(degrees));
+    }
+
+    public void turnLeft(double degrees) {
+        peer().turnBody(-Math.toRadians(degrees));
+    }
+
+    public void turnGunRight(double degrees) {
+        peer().turnGun(Math.toRadians(degrees));
+    }
+
+    public void turnGunLeft(double degrees) {
+        peer().turnGun(-Math.toRadians(degrees));
+    }
+
+    public void turnRadarRight(double degrees) {
+        peer().turnRadar(Math.toRadians(degrees));
+    }
+
+    public void turnRadarLeft(double degrees) {
+        peer().turnRadar(-Math.toRadians(degrees));
+    }
+
+    /**
+     * Fires a bullet and waits one turn.
+     */
+    public void fire(double power) {
+        peer().setFire(power);
+        peer().execute();
+    }
+
+    /**
+     * Fires a bullet and waits one turn. Returns null if the gun could not fire.
+     */
+    public Bullet fireBullet(double power) {
+        return peer().fire(power);
+    }
+
+    /**
+     * Does nothing for one turn.
+     */
+    public void doNothing() {
+        peer().execute();
+    }
+
+    /**
+     * Stops all movement and waits one turn.
+     */
+    public void stop() {
+        peer().stop(false);
+    }
+
+    public void setAdjustGunForRobotTurn(boolean independent) {
+        peer().setAdjustGunForBodyTurn(independent);
+    }
+
+    public void setAdjustRadarForGunTurn(boolean independent) {
+        peer().setAdjustRadarForGunTurn(independent);
+    }
+
+    public void setAdjustRadarForRobotTurn(boolean independent) {
+        peer().setAdjustRadarForBodyTurn(independent);
+    }
+
+    public double getX() {
+        return peer().getX();
+    }
+
+    public double getY() {
+        return peer().getY();
+    }
+
+    /**
+     * Body heading in degrees, 0 is north, clockwise.
+     */
+    public double getHeading() {
+        return Math.toDegrees(peer().getBodyHeading());
+    }
+
+    public double getGunHeading() {
+        return Math.toDegrees(peer().getGunHeading());
+    }
+
+    public double getRadarHeading() {
+        return Math.toDegrees(peer().getRadarHeading());
+    }
+
+    public double getVelocity() {
+        return peer().getVelocity();
+    }
+
+    public double getEnergy() {
+        return peer().getEnergy();
+    }
+
+    public double getGunHeat() {
+        return peer().getGunHeat();
+    }
+
+    public double getGunCoolingRate() {
+        return peer().getGunCoolingRate();
+    }
+
+    public double getBattleFieldWidth() {
+        return peer().getBattleFieldWidth();
+    }
+
+    public double getBattleFieldHeight() {
+        return peer().getBattleFieldHeight();
+    }
+
+    public double getWidth() {
+        return 36;
+    }
+
+    public double getHeight() {
+        return 36;
+    }
+
+    public String getName() {
+        return peer().getName();
+    }
+
+    public int getOthers() {
+        return peer().getOthers();
+    }
+
+    public int getNumSentries() {
+        return 0;
+    }
+
+    public int getNumRounds() {
+        return peer().getNumRounds();
+    }
+
+    public int getRoundNum() {
+        return peer().getRoundNum();
+    }
+
+    public long getTime() {
+        return peer().getTime();
+    }
+
+    public void setBodyColor(Color color) {
+        peer().setBodyColor(color);
+    }
+
+    public void setGunColor(Color color) {
+        peer().setGunColor(color);
+    }
+
+    public void setRadarColor(Color color) {
+        peer().setRadarColor(color);
+    }
+
+    public void setBulletColor(Color color) {
+        peer().setBulletColor(color);
+    }
+
+    public void setScanColor(Color color) {
+        peer().setScanColor(color);
+    }
+
+    public void setColors(Color bodyColor, Color gunColor, Color radarColor) {
+        setBodyColor(bodyColor);
+        setGunColor(gunColor);
+        setRadarColor(radarColor);
+    }
+
+    public void setAllColors(Color color) {
+        setColors(color, color, color);
+        setBulletColor(color);
+        setScanColor(color);
+    }
+
+    public void onScannedRobot(ScannedRobotEvent event) {
+    }
+
+    public void onHitWall(HitWallEvent event) {
+    }
+
+    public void onHitByBullet(HitByBulletEvent event) {
+    }
+
+    public void onHitRobot(HitRobotEvent event) {
+    }
+
+    public void onRobotDeath(RobotDeathEvent event) {
+    }
+
+    public void onBulletHit(BulletHitEvent event) {
+    }
+
+    public void onBulletHitBullet(BulletHitBulletEvent event) {
+    }
+
+    public void onBulletMissed(BulletMissedEvent event) {
+    }
+
+    public void onWin(WinEvent event) {
+    }
+
+    public void onDeath(DeathEvent event) {
+    }
+
+    public void onRoundEnded(RoundEndedEvent event) {
+    }
+}
@@ -0,0 +1,21 @@
+package robocode;
+
+/**
+ * Sent when another robot dies.
+ */
+public class RobotDeathEvent extends Event {
+
+    private final String robotName;
+
+    public RobotDeathEvent(String robotName) {
+        this.robotName = robotName;
+    }
+
+    public String getName() {
+        return robotName;
+    }
+
+    int getDefaultPriority() {
+        return 70;
+    }
+}
@@ -0,0 +1,13 @@
+package robocode;
+
+/**
+ * Thrown when a robot uses the API incorrectly.
+ */
+public class RobotException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public RobotException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,33 @@
+package robocode;
+
+/**
+ * Sent to every robot, dead or alive, when a round is over.
+ */
+public class RoundEndedEvent extends Event {
+
+    private final int round;
+    private final int turns;
+    private final int totalTurns;
+
+    public RoundEndedEvent(int round, int turns, int totalTurns) {
+        this.round = round;
+        this.turns = turns;
+        this.totalTurns = totalTurns;
+    }
+
+    public int getRound() {
+        return round;
+    }
+
+    public int getTurns() {
+        return turns;
+    }
+
+    public int getTotalTurns() {
+        return totalTurns;
+    }
+
+    int getDefaultPriority() {
+        return 110;
+    }
+}
@@ -0,0 +1,69 @@
+package robocode;
+
+/**
+ * Sent when the radar sweeps over another robot.
+ */
+public class ScannedRobotEvent extends Event {
+
+    private final String name;
+    private final double energy;
+    private final double bearing;
+    private final double distance;
+    private final double heading;
+    private final double velocity;
+    private final boolean isSentryRobot;
+
+    public ScannedRobotEvent(String name, double energy, double bearing, double distance,
+                             double heading, double velocity, boolean isSentryRobot) {
+        this.name = name;
+        this.energy = energy;
+        this.bearing = bearing;
+        this.distance = distance;
+        this.heading = heading;
+        this.velocity = velocity;
+        this.isSentryRobot = isSentryRobot;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getEnergy() {
+        return energy;
+    }
+
+    /**
+     * Bearing to the scanned robot relative to our body heading, in degrees (-180, 180].
+     */
+    public double getBearing() {
+        return Math.toDegrees(bearing);
+    }
+
+    public double getBearingRadians() {
+        return bearing;
+    }
+
+    public double getDistance() {
+        return distance;
+    }
+
+    public double getHeading() {
+        return Math.toDegrees(heading);
+    }
+
+    public double getHeadingRadians() {
+        return heading;
+    }
+
+    public double getVelocity() {
+        return velocity;
+    }
+
+    public boolean isSentryRobot() {
+        return isSentryRobot;
+    }
+
+    int getDefaultPriority() {
+        return 10;
+    }
+}
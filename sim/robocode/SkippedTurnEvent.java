@@ -0,0 +1,25 @@
+package robocode;
+
+/**
+ * Sent when the robot took longer than the CPU constant to finish a turn and
+ * Robocode skipped it.
+ */
+public class SkippedTurnEvent extends Event {
+
+    private final long skippedTurn;
+
+    public SkippedTurnEvent(long skippedTurn) {
+        this.skippedTurn = skippedTurn;
+    }
+
+    /**
+     * The turn that was skipped.
+     */
+    public long getSkippedTurn() {
+        return skippedTurn;
+    }
+
+    int getDefaultPriority() {
+        return 100;
+    }
+}
@@ -0,0 +1,11 @@
+package robocode;
+
+/**
+ * Sent to the last robot standing at the end of a round.
+ */
+public class WinEvent extends Event {
+
+    int getDefaultPriority() {
+        return 100;
+    }
+}
@@ -0,0 +1,28 @@
+package robocode.robotinterfaces.peer;
+
+import java.io.File;
+
+/**
+ * The engine side of a {@link robocode.AdvancedRobot}. The set* calls only queue
+ * a command; nothing happens until {@link #execute()}. All angles are in radians.
+ */
+public interface IAdvancedRobotPeer extends IBasicRobotPeer {
+
+    void setMove(double distance);
+
+    void setTurnBody(double radians);
+
+    void setTurnGun(double radians);
+
+    void setTurnRadar(double radians);
+
+    void setMaxVelocity(double newMaxVelocity);
+
+    void setMaxTurnRate(double newMaxTurnRate);
+
+    File getDataDirectory();
+
+    File getDataFile(String filename);
+
+    long getDataQuotaAvailable();
+}
@@ -0,0 +1,87 @@
+package robocode.robotinterfaces.peer;
+
+import robocode.Bullet;
+
+import java.awt.Color;
+
+/**
+ * The engine side of a {@link robocode.Robot}. All angles are in radians.
+ * Blocking calls return once the command has been carried out by the engine.
+ */
+public interface IBasicRobotPeer {
+
+    String getName();
+
+    long getTime();
+
+    double getEnergy();
+
+    double getX();
+
+    double getY();
+
+    double getVelocity();
+
+    double getBodyHeading();
+
+    double getGunHeading();
+
+    double getRadarHeading();
+
+    double getGunHeat();
+
+    double getGunCoolingRate();
+
+    double getBattleFieldWidth();
+
+    double getBattleFieldHeight();
+
+    int getOthers();
+
+    int getNumRounds();
+
+    int getRoundNum();
+
+    double getDistanceRemaining();
+
+    double getBodyTurnRemaining();
+
+    double getGunTurnRemaining();
+
+    double getRadarTurnRemaining();
+
+    /**
+     * Commits all pending commands and waits for the next turn.
+     */
+    void execute();
+
+    void move(double distance);
+
+    void turnBody(double radians);
+
+    void turnGun(double radians);
+
+    void turnRadar(double radians);
+
+    Bullet fire(double power);
+
+    Bullet setFire(double power);
+
+    void setAdjustGunForBodyTurn(boolean adjust);
+
+    void setAdjustRadarForGunTurn(boolean adjust);
+
+    void setAdjustRadarForBodyTurn(boolean adjust);
+
+    void stop(boolean overwrite);
+
+    void setBodyColor(Color color);
+
+    void setGunColor(Color color);
+
+    void setRadarColor(Color color);
+
+    void setBulletColor(Color color);
+
+    void setScanColor(Color color);
+}
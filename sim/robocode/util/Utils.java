@@ -0,0 +1,49 @@
+package robocode.util;
+
+/**
+ * Angle helpers from the Robocode API.
+ */
+public final class Utils {
+
+    private static final double TWO_PI = 2 * Math.PI;
+    private static final double NEAR_DELTA = .00001;
+
+    private Utils() {
+    }
+
+    /**
+     * Normalizes an angle to the range [0, 2PI).
+     */
+    public static double normalAbsoluteAngle(double angle) {
+        angle %= TWO_PI;
+        return angle >= 0 ? angle : angle + TWO_PI;
+    }
+
+    /**
+     * Normalizes an angle to the range [-PI, PI).
+     */
+    public static double normalRelativeAngle(double angle) {
+        angle %= TWO_PI;
+        if (angle >= 0) {
+            return angle < Math.PI ? angle : angle - TWO_PI;
+        }
+        return angle >= -Math.PI ? angle : angle + TWO_PI;
+    }
+
+    public static double normalAbsoluteAngleDegrees(double angle) {
+        angle %= 360;
+        return angle >= 0 ? angle : angle + 360;
+    }
+
+    public static double normalRelativeAngleDegrees(double angle) {
+        angle %= 360;
+        if (angle >= 0) {
+            return angle < 180 ? angle : angle - 360;
+        }
+        return angle >= -180 ? angle : angle + 360;
+    }
+
+    public static boolean isNear(double value1, double value2) {
+        return Math.abs(value1 - value2) < NEAR_DELTA;
+    }
+}